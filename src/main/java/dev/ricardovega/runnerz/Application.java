@@ -1,21 +1,13 @@
 package dev.ricardovega.runnerz;
 
-import dev.ricardovega.runnerz.user.User;
-import dev.ricardovega.runnerz.user.UserHttpClient;
-import dev.ricardovega.runnerz.user.UserRestClient;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.support.RestClientAdapter;
-import org.springframework.web.service.invoker.HttpServiceProxyFactory;
-
-import java.util.List;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Application {
 
 	private static final Log LOG = LogFactory.getLog(Application.class);
@@ -26,19 +18,4 @@ public class Application {
 		LOG.info("Application changed");
 	}
 
-	@Bean
-	UserHttpClient userHttpClient() {
-		RestClient restClient = RestClient.create("https://jsonplaceholder.typicode.com/");
-		HttpServiceProxyFactory factory = HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient)).build();
-		return factory.createClient(UserHttpClient.class);
-	}
-
-//	@Bean
-//	CommandLineRunner runner(UserHttpClient client) {
-//		return args -> {
-//			List<User> users = client.findAll();
-//			System.out.println(users);
-//        };
-//	}
-
 }
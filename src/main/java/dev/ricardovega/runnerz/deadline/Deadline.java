@@ -0,0 +1,77 @@
+package dev.ricardovega.runnerz.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+// Point in time by which the current request must be finished.
+// The deadline of a request is bound to its thread; JDBC statements and outbound HTTP calls read it
+// to limit how long they may take, and work on other threads gets it through propagate().
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    // Deadline of the request handled by this thread, or null when there is none
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    // Run a task on another thread under the deadline of the calling thread
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        return propagate(current(), task);
+    }
+
+    // Run a task under the given deadline, or without one when it is null
+    public static <T> Callable<T> propagate(Deadline deadline, Callable<T> task) {
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isBefore(Deadline other) {
+        return expiresAtNanos - other.expiresAtNanos < 0;
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    // Fail fast instead of starting work the caller will no longer wait for
+    public Duration checkRemaining() {
+        Duration remaining = remaining();
+        if (remaining.isZero()) {
+            throw new DeadlineExceededException();
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,30 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// JdbcTemplate that limits every statement to the time left on the request deadline.
+// JDBC query timeouts have second granularity, so the remaining budget is rounded up to whole seconds.
+public class DeadlineAwareJdbcTemplate extends JdbcTemplate {
+
+    public DeadlineAwareJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            Duration remaining = deadline.checkRemaining(); // Do not even send the statement once the budget is gone
+            int seconds = (int) Math.max(1, (remaining.toMillis() + 999) / 1000);
+            if (stmt.getQueryTimeout() == 0 || seconds < stmt.getQueryTimeout()) {
+                stmt.setQueryTimeout(seconds);
+            }
+        }
+    }
+}
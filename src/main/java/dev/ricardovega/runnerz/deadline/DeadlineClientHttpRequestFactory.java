@@ -0,0 +1,46 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// Request factory for outbound calls that caps each call's read timeout at the time left on the request deadline.
+// Fails fast when the deadline has passed and forwards the remaining budget in the X-Request-Timeout header.
+public class DeadlineClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout; // Used when there is no deadline, and as an upper bound
+
+    public DeadlineClientHttpRequestFactory(HttpClient httpClient, Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Duration timeout = readTimeout;
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            Duration remaining = deadline.checkRemaining();
+            if (remaining.compareTo(timeout) < 0) {
+                // The JDK client waits whole milliseconds; rounding up keeps the timeout from firing before the deadline
+                timeout = Duration.ofMillis(remaining.plusNanos(999_999).toMillis());
+            }
+        }
+
+        // The JDK factory is a thin wrapper around the shared HttpClient, so one per request is cheap
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(timeout);
+        ClientHttpRequest request = factory.createRequest(uri, httpMethod);
+        if (deadline != null) {
+            request.getHeaders().set(DeadlineInterceptor.TIMEOUT_HEADER, Long.toString(timeout.toMillis()));
+        }
+        return request;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class DeadlineConfig {
+
+    // Replaces Boot's JdbcTemplate, so JdbcClient and Spring Data JDBC both apply the request deadline
+    @Bean
+    JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new DeadlineAwareJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    // Applies the request deadline to every RestClient built from Boot's RestClient.Builder
+    @Bean
+    RestClientCustomizer deadlineRestClientCustomizer(@Value("${runnerz.http.connect-timeout:2s}") Duration connectTimeout,
+                                                      @Value("${runnerz.http.read-timeout:10s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        return builder -> builder.requestFactory(new DeadlineClientHttpRequestFactory(httpClient, readTimeout));
+    }
+}
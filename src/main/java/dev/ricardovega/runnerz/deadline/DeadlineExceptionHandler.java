@@ -0,0 +1,17 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Reports statements cancelled by their query timeout as 504, like other missed deadlines
+@RestControllerAdvice
+public class DeadlineExceptionHandler {
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    ResponseEntity<Void> queryTimeout() {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+}
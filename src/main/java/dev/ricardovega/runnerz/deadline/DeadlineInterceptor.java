@@ -0,0 +1,77 @@
+package dev.ricardovega.runnerz.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Starts the deadline of each request.
+// The budget is the endpoint's @RequestTimeout (or the default), shortened by the caller's X-Request-Timeout header in milliseconds.
+// A malformed or negative header is answered with 400, a header of 0 with 504.
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final Duration defaultTimeout;
+    private final Map<Method, Duration> endpointTimeouts = new ConcurrentHashMap<>(); // Parsed @RequestTimeout per handler method
+
+    public DeadlineInterceptor(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Duration timeout = endpointTimeout(handler);
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            Duration requested = parseHeader(header);
+            if (requested.compareTo(timeout) < 0) {
+                timeout = requested;
+            }
+        }
+
+        Deadline deadline = Deadline.after(timeout);
+        deadline.checkRemaining(); // A caller that has no time left gets an immediate 504
+        Deadline.set(deadline);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Deadline.clear();
+    }
+
+    // The header in milliseconds; anything but a non-negative number is a bad request, not a missed deadline
+    private static Duration parseHeader(String header) {
+        long millis;
+        try {
+            millis = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestTimeoutException(header);
+        }
+        if (millis < 0) {
+            throw new InvalidRequestTimeoutException(header);
+        }
+        return Duration.ofMillis(millis);
+    }
+
+    private Duration endpointTimeout(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            // Annotation lookup and parsing happen once per endpoint, not on every request
+            return endpointTimeouts.computeIfAbsent(handlerMethod.getMethod(), method -> {
+                RequestTimeout annotation = handlerMethod.getMethodAnnotation(RequestTimeout.class);
+                if (annotation == null) {
+                    annotation = handlerMethod.getBeanType().getAnnotation(RequestTimeout.class);
+                }
+                return annotation != null ? DurationStyle.detectAndParse(annotation.value()) : defaultTimeout;
+            });
+        }
+        return defaultTimeout;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class DeadlineWebConfig implements WebMvcConfigurer {
+
+    private final Duration defaultTimeout;
+
+    public DeadlineWebConfig(@Value("${runnerz.deadline.default-timeout:30s}") Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor(defaultTimeout)).addPathPatterns("/api/**");
+    }
+}
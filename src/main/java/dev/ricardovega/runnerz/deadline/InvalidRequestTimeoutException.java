@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestTimeoutException extends RuntimeException {
+
+    public InvalidRequestTimeoutException(String header) {
+        super("Invalid " + DeadlineInterceptor.TIMEOUT_HEADER + " header: " + header);
+    }
+}
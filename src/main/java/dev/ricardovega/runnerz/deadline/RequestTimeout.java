@@ -0,0 +1,15 @@
+package dev.ricardovega.runnerz.deadline;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Time budget of a controller endpoint, e.g. @RequestTimeout("2s").
+// Replaces runnerz.deadline.default-timeout; a shorter X-Request-Timeout header from the caller still wins.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestTimeout {
+
+    String value();
+}
@@ -1,101 +1,94 @@
 package dev.ricardovega.runnerz.run;
 
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Storage engine that keeps runs in memory only, selected with runnerz.storage.engine=memory
 @Repository
-public class InMemoryRunRepository {
+@Primary // Replaces the default JDBC engine when selected
+@ConditionalOnProperty(prefix = "runnerz.storage", name = "engine", havingValue = "memory")
+public class InMemoryRunRepository implements RunStorage {
     private static final Logger log = LoggerFactory.getLogger(InMemoryRunRepository.class);
-    private final List<Run> runs = new ArrayList<>();
+    private final ConcurrentNavigableMap<Integer, Run> runs = new ConcurrentSkipListMap<>(); // Runs by id, iterated in id order
+    private final AtomicInteger lastId = new AtomicInteger(); // Highest id handed out or stored so far
 
-    // Retrieve all runs from the in-memory list
+    // Retrieve all runs, ordered by id
+    @Override
     public List<Run> findAll() {
-        return runs;
+        return List.copyOf(runs.values()); // Snapshot, so callers never see later changes
     }
 
     // Find a run by its ID
-    // Returns an Optional containing the run if found; throws RunNotFoundException otherwise
+    // Returns an Optional containing the run if found, empty if not
+    @Override
     public Optional<Run> findById(Integer id) {
-        return Optional.ofNullable(runs.stream()
-                .filter(run -> Objects.equals(run.id(), id)) // Filter runs by matching the ID
-                .findFirst()
-                .orElseThrow(RunNotFoundException::new)); // Throw exception if no match is found
+        return Optional.ofNullable(runs.get(id));
     }
 
-    // Create a new run and add it to the list
-    public void create(Run run) {
-        // Create a new Run instance with the provided data and a null parentRun (if applicable)
-        Run newRun = new Run(run.id(),
+    // Create a new run and add it to the map
+    // Runs without an id get the next one from the counter; explicit ids move the counter past them
+    @Override
+    public Run create(Run run) {
+        Integer id = run.id();
+        if (id == null) {
+            id = lastId.incrementAndGet(); // Assign the next free id
+        } else {
+            lastId.accumulateAndGet(id, Math::max); // Never hand out an id that was supplied explicitly
+        }
+
+        // Create a new Run instance with the provided data, starting at version 0
+        Run newRun = new Run(id,
                 run.title(),
                 run.startedOn(),
                 run.completedOn(),
                 run.miles(),
-                run.location(), null);
+                run.location(), 0);
 
-        // Add the new run to the in-memory list
-        runs.add(newRun);
+        // Add the new run to the in-memory map
+        runs.put(id, newRun);
+        return newRun;
     }
 
-    // Update an existing run by replacing it with a new instance
+    // Update an existing run by replacing it with a new instance under the same id and the next version
+    @Override
     public void update(Run newRun, Integer id) {
-        // Find the existing run by its ID
-        Optional<Run> existingRun = findById(id);
-        if (existingRun.isPresent()) {
-            var r = existingRun.get();
-            log.info("Updating Existing Run: {}", existingRun.get()); // Log the update action
-            runs.set(runs.indexOf(r), newRun); // Replace the existing run in the list
+        Run existing = runs.computeIfPresent(id, (key, run) -> new Run(id, newRun.title(), newRun.startedOn(),
+                newRun.completedOn(), newRun.miles(), newRun.location(), run.version() + 1)); // Replace the run atomically
+        if (existing == null) {
+            throw new RunNotFoundException(); // Throw exception if no run has this id
         }
+        log.info("Updated Run: {}", existing); // Log the update action
     }
 
     // Delete a run by its ID
+    @Override
     public void delete(Integer id) {
         log.info("Deleting Run: {}", id); // Log the deletion action
-        // Remove the run with the matching ID from the list
-        runs.removeIf(run -> run.id().equals(id));
+        if (runs.remove(id) == null) {
+            throw new RunNotFoundException(); // Throw exception if no run has this id
+        }
     }
 
-    // Count the total number of runs in the in-memory list
+    // Count the total number of runs in the in-memory map
+    @Override
     public int count() {
         return runs.size();
     }
 
-    // Save multiple runs by iterating through the list and adding them one by one
-    public void saveAll(List<Run> runs) {
-        runs.forEach(this::create); // Use the create method for each run
-    }
-
-    // Find all runs that match the specified location
+    // Find all runs that match the specified location, ordered by id
+    @Override
     public List<Run> findByLocation(String location) {
-        return runs.stream()
-                .filter(run -> Objects.equals(run.location(), location)) // Match by location
+        return runs.values().stream()
+                .filter(run -> run.location() != null && run.location().name().equals(location)) // Match by location name
                 .toList(); // Collect results as a list
     }
-
-    // Initialize the repository with some default data
-    @PostConstruct
-    private void init() {
-        // Add a sample run representing a 30-minute indoor run
-        runs.add(new Run(1,
-                "Monday Morning Run",
-                LocalDateTime.now(),
-                LocalDateTime.now().plusMinutes(30),
-                3, // Distance in miles
-                Location.INDOOR, null));
-
-        // Add another sample run representing a 60-minute indoor run
-        runs.add(new Run(2,
-                "Wednesday Evening Run",
-                LocalDateTime.now(),
-                LocalDateTime.now().plusMinutes(60),
-                6, // Distance in miles
-                Location.INDOOR, null));
-    }
 }
@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageException extends RuntimeException {
+
+    public InvalidPageException(int page, int size, int maxSize) {
+        super("Invalid page " + page + " of size " + size + ", pages start at 0 and hold 1 to " + maxSize + " runs");
+    }
+}
@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRunFieldsException extends RuntimeException {
+
+    public InvalidRunFieldsException(String fields) {
+        super("Unknown run fields: " + fields);
+    }
+}
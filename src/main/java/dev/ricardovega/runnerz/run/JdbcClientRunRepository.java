@@ -2,98 +2,317 @@ package dev.ricardovega.runnerz.run;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import java.sql.Timestamp;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.Optional;
 
 @Repository
-public class JdbcClientRunRepository {
+public class JdbcClientRunRepository implements RunStorage {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcClientRunRepository.class);
-    private final JdbcClient jdbcClient;
+    private static final Comparator<Run> BY_ID = Comparator.comparing(Run::id);
+    private static final Comparator<Map<String, Object>> BY_ROW_ID = Comparator.comparing(row -> (Integer) row.get(RunField.ID.column()));
+    private static final String INSERT = "INSERT INTO run(id, title, started_on, completed_on, miles, location, version) VALUES(?,?,?,?,?,?,0)";
+    private static final String INSERT_UNLESS_TAKEN = "INSERT INTO run(id, title, started_on, completed_on, miles, location, version) "
+            + "SELECT ?,?,?,?,?,?,0 WHERE NOT EXISTS (SELECT 1 FROM run WHERE id = ?)";
+    private static final Comparator<Run> BY_STARTED_ON = Comparator.comparing(Run::startedOn).thenComparing(BY_ID);
 
-    // Constructor to inject the JdbcClient dependency
-    public JdbcClientRunRepository(JdbcClient jdbcClient) {
-        this.jdbcClient = jdbcClient;
+    private final RunShards shards;
+    private final RunIdAllocator idAllocator;
+    private final RunRollupRepository rollupRepository;
+
+    // Constructor to inject the RunShards, RunIdAllocator and RunRollupRepository dependencies
+    public JdbcClientRunRepository(RunShards shards, RunIdAllocator idAllocator, RunRollupRepository rollupRepository) {
+        this.shards = shards;
+        this.idAllocator = idAllocator;
+        this.rollupRepository = rollupRepository;
     }
 
-    // Retrieve all runs from the database
+    // Retrieve all runs from every shard, ordered by id
+    @Override
     public List<Run> findAll() {
-        return jdbcClient.sql("SELECT * FROM run") // SQL query to fetch all runs
+        return shards.scatter(shard -> shard.jdbcClient().sql("SELECT * FROM run ORDER BY id") // SQL query to fetch all runs
                 .query(Run.class) // Map the result to the Run class
-                .list(); // Return as a list
+                .list(), BY_ID); // Return as a list
+    }
+
+    // Retrieve one page of runs ordered by id
+    // Each shard returns at most (page + 1) * size rows, the merged list is then cut down to the page
+    @Override
+    public List<Run> findAll(int page, int size) {
+        int limit = (page + 1) * size;
+        return shards.scatter(shard -> shard.jdbcClient().sql("SELECT * FROM run ORDER BY id LIMIT :limit")
+                        .param("limit", limit) // Bind the number of rows needed from each shard
+                        .query(Run.class) // Map the result to the Run class
+                        .list(), BY_ID)
+                .stream()
+                .skip((long) page * size) // Skip the runs of earlier pages
+                .limit(size) // Keep one page
+                .toList();
     }
 
-    // Find a run by its ID
+    // Find a run by its ID on the shard that owns it
     // Returns an Optional containing the run if found, empty if not
+    @Override
     public Optional<Run> findById(Integer id) {
-        return jdbcClient.sql("SELECT id, title, started_on, completed_on, miles, location FROM run WHERE id = :id")
+        return shards.forId(id).jdbcClient().sql("SELECT id, title, started_on, completed_on, miles, location, version FROM run WHERE id = :id")
                 .param("id", id) // Bind the ID parameter to the query
                 .query(Run.class) // Map the result to the Run class
                 .optional(); // Return as an Optional
     }
 
-    // Create a new run in the database
-    public void create(Run run) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        // Format start and completion times as timestamps
-        String startedOnFormatted = run.startedOn().format(formatter);
-        String completedOnFormatted = run.completedOn().format(formatter);
+    // Find several runs by id with one IN query per shard that owns any of them
+    @Override
+    public List<Run> findAllById(Collection<Integer> ids) {
+        Map<Integer, List<Integer>> idsByShard = ids.stream().distinct().collect(Collectors.groupingBy(id -> shards.forId(id).index()));
+        return shards.scatter(shard -> {
+            List<Integer> shardIds = idsByShard.get(shard.index());
+            if (shardIds == null) {
+                return List.of(); // No id lives on this shard, skip the query
+            }
+            return shard.jdbcClient().sql("SELECT id, title, started_on, completed_on, miles, location, version FROM run WHERE id IN (:ids)")
+                    .param("ids", shardIds) // Expanded to one placeholder per id
+                    .query(Run.class) // Map the result to the Run class
+                    .list(); // Return as a list
+        }, BY_ID);
+    }
 
-        Timestamp startedOnTimestamp = Timestamp.valueOf(startedOnFormatted);
-        Timestamp completedOnTimestamp = Timestamp.valueOf(completedOnFormatted);
+    // Create a new run on the shard that owns its id, updating the rollups in the same transaction
+    // Runs without an id get one from the allocator; explicit ids are kept (e.g. when importing) and move
+    // the id sequence past them
+    @Override
+    public Run create(Run run) {
+        Run stored = insert(run);
+        if (run.id() != null) {
+            idAllocator.advancePast(run.id());
+        }
+        return stored;
+    }
 
-        String location = run.location().toString(); // Convert location to string for storage
+    private Run insert(Run run) {
+        Integer id = run.id() != null ? run.id() : idAllocator.nextId();
 
-        var updated = jdbcClient.sql("INSERT INTO run(id, title, started_on, completed_on, miles, location) VALUES(?,?,?,?,?,?)")
-                .params(List.of(run.id(), run.title(), startedOnTimestamp, completedOnTimestamp, run.miles(), location)) // Set query parameters
-                .update(); // Execute the update
+        Timestamp startedOnTimestamp = toTimestamp(run.startedOn()); // Start time, stored with second precision
+        Timestamp completedOnTimestamp = toTimestamp(run.completedOn()); // Completion time, stored with second precision
 
-        Assert.state(updated == 1, "Failed to create run " + run.title()); // Assert exactly one row was inserted
+        String location = run.location().name(); // Enum constant name, no new string is built
+
+        RunShards.Shard shard = shards.forId(id);
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            // Allocated ids are never taken. An explicit id may be taken in another month's partition, which its
+            // unique index does not see, so that insert checks for the id in the same statement
+            List<Object> params = run.id() != null
+                    ? List.of(id, run.title(), startedOnTimestamp, completedOnTimestamp, run.miles(), location, id)
+                    : List.of(id, run.title(), startedOnTimestamp, completedOnTimestamp, run.miles(), location);
+            int updated;
+            try {
+                updated = shard.jdbcClient().sql(run.id() != null ? INSERT_UNLESS_TAKEN : INSERT)
+                        .params(params) // Set query parameters, new runs start at version 0
+                        .update(); // Execute the update
+            } catch (DuplicateKeyException e) {
+                throw new DuplicateKeyException("Run id " + id + " is already taken", e); // Taken in the same partition
+            }
+            if (updated == 0) {
+                throw new DuplicateKeyException("Run id " + id + " is already taken");
+            }
+
+            Assert.state(updated == 1, "Failed to create run " + run.title()); // Assert exactly one row was inserted
+            rollupRepository.add(shard, run); // Count the run in its week and month
+        });
+        return new Run(id, run.title(), run.startedOn(), run.completedOn(), run.miles(), run.location(), 0); // Return the run as stored
     }
 
-    // Update an existing run in the database
+    // Update an existing run on the shard that owns it, moving its miles between rollups in the same transaction
+    @Override
     public void update(Run run, Integer id) {
-        var updated = jdbcClient.sql("UPDATE run SET title = ?, started_on = ?, completed_on = ?, miles = ?, location = ? WHERE id = ?")
-                .params(List.of(run.title(), run.startedOn(), run.completedOn(), run.miles(), run.location().toString(), id)) // Set query parameters
-                .update(); // Execute the update
+        RunShards.Shard shard = shards.forId(id);
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            Run existing = findForUpdate(shard, id).orElseThrow(RunNotFoundException::new); // Lock the row and read the values being replaced
 
-        Assert.state(updated == 1, "Failed to update run " + run.title()); // Assert exactly one row was updated
+            var updated = shard.jdbcClient().sql("UPDATE run SET title = ?, started_on = ?, completed_on = ?, miles = ?, location = ?, version = COALESCE(version, 0) + 1 WHERE id = ?")
+                    .params(List.of(run.title(), run.startedOn(), run.completedOn(), run.miles(), run.location().toString(), id)) // Set query parameters
+                    .update(); // Execute the update
+
+            Assert.state(updated == 1, "Failed to update run " + run.title()); // Assert exactly one row was updated
+            rollupRepository.subtract(shard, existing); // Remove the old values from the rollups
+            rollupRepository.add(shard, run); // Add the new values
+        });
     }
 
-    // Delete a run by its ID
+    // Delete a run by its ID on the shard that owns it, removing it from the rollups in the same transaction
+    @Override
     public void delete(Integer id) {
-        var updated = jdbcClient.sql("DELETE FROM run WHERE id = :id")
-                .param("id", id) // Bind the ID parameter to the query
-                .update(); // Execute the update
+        RunShards.Shard shard = shards.forId(id);
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            Run existing = findForUpdate(shard, id).orElseThrow(RunNotFoundException::new); // Lock the row and read the values being removed
+
+            var updated = shard.jdbcClient().sql("DELETE FROM run WHERE id = :id")
+                    .param("id", id) // Bind the ID parameter to the query
+                    .update(); // Execute the update
+
+            Assert.state(updated == 1, "Failed to delete run " + id); // Assert exactly one row was deleted
+            shard.jdbcClient().sql("DELETE FROM run_track WHERE run_id = :id")
+                    .param("id", id) // Its track, which has no foreign key to cascade from
+                    .update();
+            rollupRepository.subtract(shard, existing); // Remove the run from its week and month
+        });
+    }
+
+    // Delete up to limit runs started before the given time, shard by shard, one short transaction per shard
+    @Override
+    public int deleteStartedBefore(LocalDateTime before, Location location, int limit) {
+        int deleted = 0;
+        for (RunShards.Shard shard : shards.all()) {
+            deleted += deleteStartedBefore(shard, before, location, limit - deleted);
+            if (deleted == limit) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    // Delete up to chunkSize runs started before the given time (optionally at one location) on one shard,
+    // oldest first, in one short transaction; fewer than chunkSize deleted means the shard has none left
+    private int deleteStartedBefore(RunShards.Shard shard, LocalDateTime before, Location location, int chunkSize) {
+        String sql = "SELECT id, title, started_on, completed_on, miles, location, version FROM run WHERE started_on < :before"
+                + (location == null ? "" : " AND location = :location")
+                + " ORDER BY started_on, id LIMIT :limit FOR UPDATE";
+        Map<String, Object> params = new HashMap<>();
+        params.put("before", before);
+        params.put("limit", chunkSize);
+        if (location != null) {
+            params.put("location", location.name());
+        }
+
+        return shard.transactionTemplate().execute(status -> {
+            List<Run> chunk = shard.jdbcClient().sql(sql)
+                    .params(params) // Bind the bounds of the chunk
+                    .query(Run.class) // Map the result to the Run class
+                    .list(); // Lock only the rows of this chunk
+            if (chunk.isEmpty()) {
+                return 0;
+            }
+
+            List<Integer> ids = chunk.stream().map(Run::id).toList();
+            var deleted = shard.jdbcClient().sql("DELETE FROM run WHERE id IN (:ids) AND started_on BETWEEN :earliest AND :latest")
+                    .param("ids", ids) // Bind the ids of the locked rows
+                    .param("earliest", chunk.get(0).startedOn()) // The chunk is ordered by start time, so on the partitioned
+                    .param("latest", chunk.get(chunk.size() - 1).startedOn()) // table only the chunk's months are scanned
+                    .update(); // Execute the delete
+            shard.jdbcClient().sql("DELETE FROM run_track WHERE run_id IN (:ids)")
+                    .param("ids", ids) // Their tracks, which have no foreign key to cascade from
+                    .update();
 
-        Assert.state(updated == 1, "Failed to delete run " + id); // Assert exactly one row was deleted
+            Assert.state(deleted == chunk.size(), "Failed to delete " + chunk.size() + " runs"); // Assert every locked row was deleted
+            rollupRepository.subtractAll(shard, chunk); // Remove the chunk from the rollups
+            return deleted;
+        });
     }
 
-    // Count the total number of runs in the database
+    // Timestamp truncated to whole seconds, built without formatting and re-parsing a string
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        Timestamp timestamp = Timestamp.valueOf(dateTime);
+        timestamp.setNanos(0);
+        return timestamp;
+    }
+
+    // Read a run and lock its row until the surrounding transaction ends
+    private Optional<Run> findForUpdate(RunShards.Shard shard, Integer id) {
+        return shard.jdbcClient().sql("SELECT id, title, started_on, completed_on, miles, location, version FROM run WHERE id = :id FOR UPDATE")
+                .param("id", id) // Bind the ID parameter to the query
+                .query(Run.class) // Map the result to the Run class
+                .optional(); // Return as an Optional
+    }
+
+    // Count the total number of runs over all shards
+    @Override
     public int count() {
-        return jdbcClient.sql("SELECT * FROM run") // Fetch all rows
-                .query() // Execute the query
-                .listOfRows() // Return rows as a list
-                .size(); // Return the count of rows
+        return shards.all().stream()
+                .mapToInt(shard -> shard.jdbcClient().sql("SELECT COUNT(*) FROM run") // Count rows on the shard
+                        .query(Integer.class)
+                        .single())
+                .sum(); // Add up the shard counts
     }
 
-    // Save multiple runs to the database
+    // Save multiple runs to the database, moving the id sequence once past the largest explicit id
+    @Override
     public void saveAll(List<Run> runs) {
-        runs.forEach(this::create); // Use the create method for each run
+        runs.forEach(this::insert); // Insert each run like create does
+        runs.stream()
+                .map(Run::id)
+                .filter(Objects::nonNull)
+                .max(Integer::compare)
+                .ifPresent(idAllocator::advancePast);
     }
 
-    // Find runs by their location
+    // Find runs by their location on every shard, ordered by id
+    @Override
     public List<Run> findByLocation(String location) {
-        return jdbcClient.sql("SELECT * FROM run WHERE location = :location")
+        return shards.scatter(shard -> shard.jdbcClient().sql("SELECT * FROM run WHERE location = :location ORDER BY id")
                 .param("location", location) // Bind the location parameter to the query
                 .query(Run.class) // Map the result to the Run class
-                .list(); // Return as a list
+                .list(), BY_ID); // Return as a list
+    }
+
+    // Retrieve only the given fields of all runs, ordered by id
+    // Each row is a map from JSON property name to value, so only the selected fields are serialized
+    @Override
+    public List<Map<String, Object>> findAll(Set<RunField> fields) {
+        return findProjected(fields, "", Map.of());
+    }
+
+    // Retrieve only the given fields of the runs at a location, ordered by id
+    @Override
+    public List<Map<String, Object>> findByLocation(String location, Set<RunField> fields) {
+        return findProjected(fields, " WHERE location = :location", Map.of("location", location));
+    }
+
+    // The id is always read so shards can be merged in order, and dropped again if it was not requested
+    private List<Map<String, Object>> findProjected(Set<RunField> fields, String where, Map<String, Object> params) {
+        Set<RunField> selected = EnumSet.copyOf(fields);
+        selected.add(RunField.ID);
+        String columns = selected.stream().map(RunField::column).collect(Collectors.joining(", ")); // Column names come from the whitelist only
+        String sql = "SELECT " + columns + " FROM run" + where + " ORDER BY id";
+
+        List<Map<String, Object>> rows = shards.scatter(shard -> shard.jdbcClient().sql(sql)
+                .params(params) // Bind the filter parameters, if any
+                .query((rs, rowNum) -> {
+                    Map<String, Object> row = new LinkedHashMap<>(selected.size() * 2);
+                    for (RunField field : selected) {
+                        row.put(field.column(), field.read(rs));
+                    }
+                    return row;
+                })
+                .list(), BY_ROW_ID);
+        if (!fields.contains(RunField.ID)) {
+            rows.forEach(row -> row.remove(RunField.ID.column()));
+        }
+        return rows;
+    }
+
+    // Find runs started in [from, to) on every shard
+    // The bounds are on the partition key, so PostgreSQL only scans the monthly partitions in range
+    @Override
+    public List<Run> findAllStartedBetween(LocalDateTime from, LocalDateTime to) {
+        return shards.scatter(shard -> shard.jdbcClient().sql("SELECT * FROM run WHERE started_on >= :from AND started_on < :to ORDER BY started_on")
+                .param("from", from) // Bind the lower bound (inclusive)
+                .param("to", to) // Bind the upper bound (exclusive)
+                .query(Run.class) // Map the result to the Run class
+                .list(), BY_STARTED_ON); // Return as a list
     }
 
 }
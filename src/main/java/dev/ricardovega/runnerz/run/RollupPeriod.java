@@ -0,0 +1,22 @@
+package dev.ricardovega.runnerz.run;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public enum RollupPeriod {
+    WEEK {
+        @Override
+        public LocalDate start(LocalDate date) {
+            return date.with(DayOfWeek.MONDAY); // ISO weeks start on Monday
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDate start(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+    };
+
+    // First day of the period that contains the given date
+    public abstract LocalDate start(LocalDate date);
+}
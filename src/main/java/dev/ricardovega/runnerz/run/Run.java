@@ -39,4 +39,9 @@ public record Run (
             throw new IllegalArgumentException("Completed On must be after Started On"); // Throw error if validation fails
         }
     }
+
+    // Copy of this run with the given id
+    public Run withId(Integer id) {
+        return new Run(id, title, startedOn, completedOn, miles, location, version);
+    }
 }
@@ -0,0 +1,131 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Moves cold runs out of PostgreSQL.
+// Every monthly partition that lies completely before the cutoff is detached from the run table, written to a
+// gzipped JSON lines file in the archive directory and dropped. Each shard is archived separately.
+@Component
+@ConditionalOnProperty(prefix = "runnerz.archive", name = "enabled", havingValue = "true")
+public class RunArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(RunArchiver.class);
+
+    private final RunShards shards;
+    private final RunPartitionMaintenance partitionMaintenance;
+    private final ObjectMapper objectMapper;
+    private final Period maxAge; // Runs older than this are archived
+    private final Path directory; // Where archive files are written
+
+    public RunArchiver(RunShards shards,
+                       RunPartitionMaintenance partitionMaintenance,
+                       ObjectMapper objectMapper,
+                       @Value("${runnerz.archive.max-age:P1Y}") Period maxAge,
+                       @Value("${runnerz.archive.directory:archive}") Path directory) {
+        this.shards = shards;
+        this.partitionMaintenance = partitionMaintenance;
+        this.objectMapper = objectMapper;
+        this.maxAge = maxAge;
+        this.directory = directory;
+    }
+
+    @Scheduled(cron = "${runnerz.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        LocalDate cutoff = LocalDate.now().minus(maxAge);
+        for (RunShards.Shard shard : shards.all()) {
+            for (YearMonth month : partitionMaintenance.partitions(shard)) {
+                // Only whole months are archived, a partition is cold once its last day is before the cutoff
+                if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                    break;
+                }
+                archive(shard, month);
+            }
+        }
+    }
+
+    // Detach one monthly partition of a shard, export it to the archive directory, then drop it.
+    // Once detached, new runs for the month land in run_default, so every row that is dropped has been exported;
+    // those later rows get their own partition again and end up in a second archive file for the month.
+    public void archive(RunShards.Shard shard, YearMonth month) {
+        String partition = RunPartitionMaintenance.partitionName(month);
+        shard.transactionTemplate().executeWithoutResult(status ->
+                shard.jdbcClient().sql("ALTER TABLE run DETACH PARTITION " + partition).update());
+
+        Path file;
+        long exported;
+        try {
+            file = createArchiveFile(shard, partition);
+            exported = export(shard, partition, file);
+        } catch (RuntimeException e) {
+            partitionMaintenance.attachPartition(shard, month); // Make the runs visible again instead of losing them
+            throw e;
+        }
+
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            shard.jdbcClient().sql("DELETE FROM run_track WHERE run_id IN (SELECT id FROM " + partition + ")").update(); // Tracks are not archived
+            shard.jdbcClient().sql("DROP TABLE " + partition).update();
+        });
+        log.info("Archived {} runs from {} on shard {} to {}", exported, partition, shard.index(), file);
+    }
+
+    // A new, empty file for the partition; an existing archive of the same month gets a numbered sibling instead
+    private Path createArchiveFile(RunShards.Shard shard, String partition) {
+        try {
+            Files.createDirectories(directory);
+            for (int attempt = 0; ; attempt++) {
+                String suffix = attempt == 0 ? "" : "-" + attempt;
+                Path file = directory.resolve("shard" + shard.index() + "_" + partition + suffix + ".jsonl.gz");
+                try {
+                    return Files.createFile(file); // Fails instead of truncating an earlier archive
+                } catch (FileAlreadyExistsException e) {
+                    // Try the next suffix
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create archive file for " + partition, e);
+        }
+    }
+
+    private long export(RunShards.Shard shard, String partition, Path file) {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file, StandardOpenOption.WRITE));
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+             Stream<Run> runs = shard.jdbcClient().sql("SELECT * FROM " + partition + " ORDER BY started_on").query(Run.class).stream()) {
+            long count = 0;
+            for (Run run : (Iterable<Run>) runs::iterator) {
+                writer.write(run);
+                count++;
+            }
+            return count;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(file); // Never leave a partial archive behind
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new UncheckedIOException("Failed to archive " + partition, (IOException) e);
+        }
+    }
+}
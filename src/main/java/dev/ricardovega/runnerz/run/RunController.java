@@ -1,71 +1,97 @@
 package dev.ricardovega.runnerz.run;
 
-
+import dev.ricardovega.runnerz.deadline.RequestTimeout;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/runs") // Maps the controller to the base path "/api/runs"
 public class RunController {
 
-    private final RunRepository runRepository;
+    private static final int MAX_PAGE_SIZE = 1_000; // Every shard reads (page + 1) * size rows for a page
+
+    private final RunStorage runStorage;
+    private final RunLookupCoalescer lookupCoalescer;
+    private final RunOverlapGuard overlapGuard;
 
-    // Constructor to inject the RunRepository dependency
-    public RunController(RunRepository runRepository) {
-        this.runRepository = runRepository;
+    // Constructor to inject the RunStorage dependency, the engine selected with runnerz.storage.engine
+    // Writes go through the RunOverlapGuard, which keeps its index of run times up to date
+    public RunController(RunStorage runStorage, RunLookupCoalescer lookupCoalescer, RunOverlapGuard overlapGuard) {
+        this.runStorage = runStorage;
+        this.lookupCoalescer = lookupCoalescer;
+        this.overlapGuard = overlapGuard;
     }
 
-    // Get all runs from the repository
+    // Get all runs from the storage
+    // With ?fields=id,title,miles only those properties are read and returned
     @GetMapping("")
-    List<Run> findAll() {
-        return runRepository.findAll(); // Return the list of all runs
+    @RequestTimeout("10s") // Full listings may take longer than single lookups
+    List<?> findAll(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return runStorage.findAll(RunField.parse(fields)); // Return the requested fields of all runs
+        }
+        return runStorage.findAll(); // Return the list of all runs
+    }
+
+    // Get one page of runs ordered by id, pages counted from 0
+    @GetMapping(value = "", params = {"page", "size"})
+    List<Run> findPage(@RequestParam int page, @RequestParam int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidPageException(page, size, MAX_PAGE_SIZE);
+        }
+        return runStorage.findAll(page, size);
+    }
+
+    // Find the runs started in [from, to), ordered by start time
+    // On PostgreSQL only the monthly partitions in range are scanned
+    @GetMapping(value = "", params = {"from", "to"})
+    List<Run> findAllStartedBetween(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return runStorage.findAllStartedBetween(from, to);
     }
 
     // Find a specific run by its ID
     @GetMapping("/{id}") // Mapping for GET request with a path variable for the ID
+    @RequestTimeout("2s") // Single lookups are expected to be fast
     Run findById(@PathVariable Integer id) {
-        // Attempt to find the run by ID
-        Optional<Run> run = runRepository.findById(id);
-        if (run.isEmpty()) {
-            throw new RunNotFoundException(); // Throw a custom exception if not found
-        }
-
-        return run.get(); // Return the found run
+        // Concurrent lookups are batched into one query; return the run, or throw a custom exception if not found
+        return lookupCoalescer.findById(id).orElseThrow(RunNotFoundException::new);
     }
 
     // Create a new run
+    // The id is always assigned by the server, any id sent by the client is ignored
+    // A run overlapping a stored one is rejected with 409, or merged into it, depending on runnerz.overlap.policy
     @ResponseStatus(HttpStatus.CREATED) // Set the response status to 201 (Created)
     @PostMapping("") // Mapping for POST request to create a new run
-    void create(@Valid @RequestBody Run run) {
-        runRepository.save(run); // Save the run to the repository
+    Run create(@Valid @RequestBody Run run) {
+        return overlapGuard.create(run.withId(null)); // Store the run and return it with its new id
     }
 
     // Update an existing run by its ID
     @ResponseStatus(HttpStatus.NO_CONTENT) // Set the response status to 204 (No Content) for successful update
     @PutMapping("/{id}") // Mapping for PUT request to update a run
     void update(@Valid @RequestBody Run run, @PathVariable Integer id) {
-        runRepository.save(run); // Save the updated run to the repository
+        overlapGuard.update(run, id); // Replace the run with this id, 404 if there is none, 409 if it overlaps another run
     }
 
     // Delete a run by its ID
     @ResponseStatus(HttpStatus.NO_CONTENT) // Set the response status to 204 (No Content) for successful deletion
     @DeleteMapping("/{id}") // Mapping for DELETE request to remove a run
     void delete(@PathVariable Integer id) {
-        Optional<Run> run = runRepository.findById(id);
-        if (run.isEmpty()) {
-            throw new RunNotFoundException(); // Throw a custom exception if run is not found
-        }
-
-        runRepository.delete(run.get()); // Delete the run from the repository
+        overlapGuard.delete(id); // Delete the run, 404 if there is none
     }
 
     // Find runs by their location
     @GetMapping("/location/{location}") // Mapping for GET request to fetch runs by location
-    List<Run> findByLocation(@PathVariable String location) {
-        return runRepository.findAllByLocation(location); // Return the list of runs that match the location
+    List<?> findByLocation(@PathVariable String location, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return runStorage.findByLocation(location, RunField.parse(fields)); // Return the requested fields only
+        }
+        return runStorage.findByLocation(location); // Return the list of runs that match the location
     }
 }
@@ -0,0 +1,77 @@
+package dev.ricardovega.runnerz.run;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Properties of a run that can be requested with ?fields=.
+// Doubles as the column whitelist: only these names ever end up in a projected SELECT.
+public enum RunField {
+
+    ID("id", Integer.class, Run::id),
+    TITLE("title", String.class, Run::title),
+    STARTED_ON("started_on", LocalDateTime.class, Run::startedOn),
+    COMPLETED_ON("completed_on", LocalDateTime.class, Run::completedOn),
+    MILES("miles", Integer.class, Run::miles),
+    LOCATION("location", String.class, Run::location),
+    VERSION("version", Integer.class, Run::version);
+
+    private final String column; // Column name, also the JSON property name
+    private final Class<?> type;
+    private final Function<Run, Object> accessor;
+
+    RunField(String column, Class<?> type, Function<Run, Object> accessor) {
+        this.column = column;
+        this.type = type;
+        this.accessor = accessor;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    // Read this field from the current row of a projected query
+    Object read(ResultSet rs) throws SQLException {
+        Object value = rs.getObject(column, type);
+        return this == LOCATION && value != null ? Location.valueOf((String) value) : value;
+    }
+
+    // The given fields of a run already in memory, keyed by JSON property name like a projected row
+    public static Map<String, Object> project(Run run, Set<RunField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+        for (RunField field : fields) {
+            row.put(field.column, field.accessor.apply(run));
+        }
+        return row;
+    }
+
+    // Parse a comma separated list of JSON property names, e.g. "id,title,miles"
+    public static Set<RunField> parse(String fields) {
+        Set<RunField> parsed = EnumSet.noneOf(RunField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(fromColumn(trimmed));
+        }
+        if (parsed.isEmpty()) {
+            throw new InvalidRunFieldsException(fields);
+        }
+        return parsed;
+    }
+
+    private static RunField fromColumn(String name) {
+        for (RunField field : values()) {
+            if (field.column.equals(name)) {
+                return field;
+            }
+        }
+        throw new InvalidRunFieldsException(name);
+    }
+}
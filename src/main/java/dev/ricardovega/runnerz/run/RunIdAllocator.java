@@ -0,0 +1,80 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.relational.core.mapping.event.BeforeConvertCallback;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+// Hands out run ids from blocks reserved on the run_id_seq database sequence.
+// The sequence increments by the block size, so each nextval reserves a whole block for this node
+// and only one in every blockSize inserts goes to the database for an id.
+// Runs stored with an explicit id (imports) move the sequence past that id with advance_run_id_seq, so no block
+// reserved afterwards contains it. Blocks other nodes reserved before the import are not affected.
+// The sequence is only touched on the first allocation, so engines without run_id_seq (memory) start without it.
+@Component
+public class RunIdAllocator implements BeforeConvertCallback<Run> {
+
+    private final JdbcClient jdbcClient;
+    private final int blockSize; // Must match INCREMENT BY of run_id_seq in schema.sql
+    private int next; // Next id to hand out
+    private int limit; // First id after the current block
+    private boolean validated; // Block size checked against run_id_seq, guarded by this
+
+    public RunIdAllocator(JdbcClient jdbcClient, @Value("${runnerz.id.block-size:50}") int blockSize) {
+        this.jdbcClient = jdbcClient;
+        this.blockSize = blockSize;
+    }
+
+    // Fail the first allocation when the sequence does not increment by the block size; with a smaller increment
+    // the blocks reserved by different nodes would overlap
+    synchronized void validateBlockSize() {
+        if (validated) {
+            return;
+        }
+        long increment = jdbcClient.sql("SELECT increment FROM information_schema.sequences WHERE lower(sequence_name) = 'run_id_seq'")
+                .query(Long.class)
+                .single();
+        if (increment != blockSize) {
+            throw new IllegalStateException("runnerz.id.block-size is " + blockSize + " but run_id_seq increments by " + increment);
+        }
+        validated = true;
+    }
+
+    // Return the next free id, reserving a new block when the current one is used up
+    public synchronized int nextId() {
+        if (next == limit) {
+            validateBlockSize();
+            next = jdbcClient.sql("SELECT nextval('run_id_seq')")
+                    .query(Integer.class)
+                    .single();
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    // Move run_id_seq past an id that was stored without the allocator, dropping the rest of the current block
+    // unless the id lies below it; for a batch, the largest id covers every smaller one
+    public synchronized void advancePast(int id) {
+        validateBlockSize();
+        jdbcClient.sql("SELECT advance_run_id_seq(:id)")
+                .param("id", id)
+                .query(Long.class)
+                .single();
+        if (id >= next) {
+            next = limit;
+        }
+    }
+
+    // Assign an id to runs saved through the Spring Data RunRepository without one
+    // A new run (no version yet) with an explicit id moves the sequence past it instead
+    @Override
+    public Run onBeforeConvert(Run run) {
+        if (run.id() == null) {
+            return run.withId(nextId());
+        }
+        if (run.version() == null) {
+            advancePast(run.id());
+        }
+        return run;
+    }
+}
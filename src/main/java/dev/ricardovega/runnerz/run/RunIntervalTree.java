@@ -0,0 +1,172 @@
+package dev.ricardovega.runnerz.run;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Interval tree over the [startedOn, completedOn) times of runs: an AVL tree ordered by start time (then id)
+// in which every node also keeps the latest completedOn of its subtree, so a query skips every subtree that
+// ends before the queried interval starts. Adding, removing and finding an overlap take O(log n).
+// Runs that only touch (one ends when the other starts) do not overlap. Not thread-safe.
+class RunIntervalTree {
+
+    private static final Comparator<Run> BY_START = Comparator.comparing(Run::startedOn).thenComparing(Run::id);
+
+    private final Map<Integer, Run> byId = new HashMap<>(); // Indexed version of each run, to find it again by id
+    private Node root;
+
+    // Add a run, replacing the run with the same id if there is one
+    void add(Run run) {
+        remove(run.id());
+        root = insert(root, run);
+        byId.put(run.id(), run);
+    }
+
+    // Remove the run with the given id; false if it was not indexed
+    boolean remove(Integer id) {
+        Run run = byId.remove(id);
+        if (run == null) {
+            return false;
+        }
+        root = delete(root, run);
+        return true;
+    }
+
+    // The indexed run with the given id, or null
+    Run get(Integer id) {
+        return byId.get(id);
+    }
+
+    // Runs overlapping [start, end), ordered by start time
+    List<Run> overlapping(LocalDateTime start, LocalDateTime end) {
+        List<Run> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    // Height of the tree, 0 when empty
+    int height() {
+        return height(root);
+    }
+
+    private static void collect(Node node, LocalDateTime start, LocalDateTime end, List<Run> result) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return; // Everything below ends before the interval starts
+        }
+        collect(node.left, start, end, result);
+        if (!node.run.startedOn().isBefore(end)) {
+            return; // This run and everything to its right start after the interval ends
+        }
+        if (node.run.completedOn().isAfter(start)) {
+            result.add(node.run);
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private static Node insert(Node node, Run run) {
+        if (node == null) {
+            return new Node(run);
+        }
+        if (BY_START.compare(run, node.run) < 0) {
+            node.left = insert(node.left, run);
+        } else {
+            node.right = insert(node.right, run);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, Run run) {
+        if (node == null) {
+            return null;
+        }
+        int order = BY_START.compare(run, node.run);
+        if (order < 0) {
+            node.left = delete(node.left, run);
+        } else if (order > 0) {
+            node.right = delete(node.right, run);
+        } else if (node.left == null || node.right == null) {
+            return node.left != null ? node.left : node.right;
+        } else {
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.run = successor.run; // Take the place of the next run, then remove that one from the right
+            node.right = delete(node.right, successor.run);
+        }
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    // Recompute height and maxEnd from the children
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.run.completedOn();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+        private Run run;
+        private LocalDateTime maxEnd; // Latest completedOn in this subtree
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(Run run) {
+            this.run = run;
+            this.maxEnd = run.completedOn();
+        }
+    }
+}
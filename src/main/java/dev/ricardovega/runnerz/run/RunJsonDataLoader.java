@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -12,15 +13,18 @@ import java.io.IOException;
 import java.io.InputStream;
 
 @Component
+@Order(0) // Seed data is loaded before any other startup runner
 public class RunJsonDataLoader implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(RunJsonDataLoader.class);
-    private final JdbcClientRunRepository jdbcClientRunRepository; // Repository for interacting with the database
+    private final RunStorage runStorage; // Storage engine the runs are loaded into
+    private final RunOverlapGuard overlapGuard; // Checks the imported runs for overlapping times
     private final ObjectMapper objectMapper; // ObjectMapper to handle JSON deserialization
 
-    // Constructor to inject dependencies (JdbcClientRunRepository and ObjectMapper)
-    public RunJsonDataLoader(JdbcClientRunRepository jdbcClientRunRepository) {
-        this.jdbcClientRunRepository = jdbcClientRunRepository;
+    // Constructor to inject dependencies (RunStorage, RunOverlapGuard and ObjectMapper)
+    public RunJsonDataLoader(RunStorage runStorage, RunOverlapGuard overlapGuard) {
+        this.runStorage = runStorage;
+        this.overlapGuard = overlapGuard;
         this.objectMapper = new ObjectMapper();
 
         // Registering the JavaTimeModule to handle Java 8 DateTime types in JSON
@@ -34,14 +38,14 @@ public class RunJsonDataLoader implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         // Check if the database already has data before loading from the JSON file
-        if(jdbcClientRunRepository.count() == 0) {
+        if(runStorage.count() == 0) {
             try (InputStream inputStream = getClass().getResourceAsStream("/data/runs.json")) {
                 // Read the runs from the JSON file and map them to a Runs object
                 Runs allRuns = objectMapper.readValue(inputStream, Runs.class);
                 // Log the number of runs that will be saved to the database
                 log.info("Reading {} runs from JSON data and saving it to DB.", allRuns.runs().size());
-                // Save the read runs to the database
-                jdbcClientRunRepository.saveAll(allRuns.runs());
+                // Save the read runs to the database, applying the overlap policy
+                overlapGuard.saveAll(allRuns.runs());
             } catch (IOException e) {
                 // Handle failure in reading JSON file and throw runtime exception
                 throw new RuntimeException("Failed to read JSON data", e);
@@ -0,0 +1,78 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Hand-written serializer for Run, enabled with runnerz.json.fast-mode=true.
+// Writes the same JSON as the default record serializer, but skips reflective accessor lookups,
+// the per-property @JsonProperty mapping and the contextual JavaTimeModule serializer resolution.
+@JsonComponent
+@ConditionalOnProperty(prefix = "runnerz.json", name = "fast-mode", havingValue = "true")
+public class RunJsonSerializer extends StdSerializer<Run> {
+
+    // Same format JavaTimeModule uses for LocalDateTime when dates are not written as timestamps
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Property names are encoded once and reused for every run
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString STARTED_ON = new SerializedString("started_on");
+    private static final SerializedString COMPLETED_ON = new SerializedString("completed_on");
+    private static final SerializedString MILES = new SerializedString("miles");
+    private static final SerializedString LOCATION = new SerializedString("location");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    public RunJsonSerializer() {
+        super(Run.class);
+    }
+
+    @Override
+    public void serialize(Run run, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(run);
+        gen.writeFieldName(ID);
+        writeInteger(gen, run.id());
+        gen.writeFieldName(TITLE);
+        gen.writeString(run.title());
+        gen.writeFieldName(STARTED_ON);
+        writeDateTime(gen, run.startedOn());
+        gen.writeFieldName(COMPLETED_ON);
+        writeDateTime(gen, run.completedOn());
+        gen.writeFieldName(MILES);
+        writeInteger(gen, run.miles());
+        gen.writeFieldName(LOCATION);
+        if (run.location() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(run.location().name()); // Enum constants are written by name, like Jackson does by default
+        }
+        gen.writeFieldName(VERSION);
+        writeInteger(gen, run.version());
+        gen.writeEndObject();
+    }
+
+    // Write a nullable Integer without boxing through the generic number path
+    private static void writeInteger(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.intValue());
+        }
+    }
+
+    // Write a nullable LocalDateTime as an ISO-8601 string
+    private static void writeDateTime(JsonGenerator gen, LocalDateTime value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(DATE_TIME_FORMATTER.format(value));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package dev.ricardovega.runnerz.run;
+
+import dev.ricardovega.runnerz.deadline.Deadline;
+import dev.ricardovega.runnerz.deadline.DeadlineExceededException;
+import dev.ricardovega.runnerz.tracing.Span;
+import dev.ricardovega.runnerz.warmup.WarmupRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Gathers concurrent lookups by id for a short window (or until max-batch-size ids are waiting)
+// and reads them with a single RunStorage.findAllById call; each caller gets its own run back.
+// Lookups only wait for a window while another batch query is running: a lookup arriving when nothing
+// is queued or in flight is read right away on the caller's thread, so an idle service adds no latency.
+// Every caller still waits under its own deadline, and the batch query runs under the earliest of them.
+// The batch query is traced as part of the request that opened the batch (or filled it up).
+// Lookups of warm-up requests are left out of the batch metrics.
+@Component
+public class RunLookupCoalescer {
+
+    private final RunStorage runStorage;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("run-lookup-coalescer").daemon().factory()); // Closes the windows
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor(); // Runs the batch queries
+    private final DistributionSummary batchSizes;
+    private final Timer addedLatency;
+    private Batch pending; // Batch still accepting ids, guarded by this
+    private int inFlight; // Batch queries sent and not yet answered, guarded by this
+
+    public RunLookupCoalescer(RunStorage runStorage,
+                              MeterRegistry meterRegistry,
+                              @Value("${runnerz.coalescing.enabled:true}") boolean enabled,
+                              @Value("${runnerz.coalescing.window:2ms}") Duration window,
+                              @Value("${runnerz.coalescing.max-batch-size:100}") int maxBatchSize) {
+        this.runStorage = runStorage;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("runnerz.runs.lookup.batch.size")
+                .description("Distinct ids read per coalesced findById query")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        this.addedLatency = Timer.builder("runnerz.runs.lookup.added.latency")
+                .description("Time a findById waited for its batch to be sent")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    public Optional<Run> findById(Integer id) {
+        if (!enabled) {
+            return runStorage.findById(id);
+        }
+
+        CompletableFuture<Optional<Run>> result;
+        Batch direct = null;
+        Batch full = null;
+        synchronized (this) {
+            if (pending == null && inFlight == 0) {
+                direct = new Batch(); // Nothing to share a query with, so no reason to wait for one
+                take(direct);
+            } else if (pending == null) {
+                Batch batch = new Batch();
+                pending = batch;
+                Callable<Void> flush = flushing(batch);
+                scheduler.schedule(() -> executor.submit(flush), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            Batch batch = direct != null ? direct : pending;
+            result = batch.add(id, !WarmupRequest.isCurrent());
+            if (batch == pending && pending.size() >= maxBatchSize) {
+                full = pending; // Send it now instead of waiting for the window to close
+                pending = null;
+            }
+        }
+        if (direct != null) {
+            query(direct); // On the caller's thread, under its span and deadline
+        } else if (full != null) {
+            executor.submit(flushing(full));
+        }
+        return await(result);
+    }
+
+    // Flush of the batch under the caller's span, if the caller is traced
+    private Callable<Void> flushing(Batch batch) {
+        return Span.propagate(() -> {
+            flush(batch);
+            return null;
+        });
+    }
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (!take(batch)) {
+                return; // Already sent because it filled up
+            }
+        }
+        query(batch);
+    }
+
+    // Close the batch to new ids and count it as in flight; false if it was already sent.
+    // Called under the coalescer lock only.
+    private boolean take(Batch batch) {
+        if (pending == batch) {
+            pending = null;
+        }
+        if (batch.sent) {
+            return false;
+        }
+        batch.sent = true;
+        inFlight++;
+        return true;
+    }
+
+    // Read a taken batch and answer its callers
+    private void query(Batch batch) {
+        long sentAt = System.nanoTime();
+        batch.enqueuedAt.forEach(enqueuedAt -> addedLatency.record(sentAt - enqueuedAt, TimeUnit.NANOSECONDS));
+        if (!batch.enqueuedAt.isEmpty()) {
+            batchSizes.record(batch.waiters.size());
+        }
+        try {
+            // No caller waits past the earliest deadline, so the query need not run longer either
+            List<Run> runs = Deadline.propagate(batch.deadline, () -> runStorage.findAllById(batch.waiters.keySet())).call();
+            Map<Integer, Run> found = runs.stream().collect(Collectors.toMap(Run::id, Function.identity()));
+            batch.waiters.forEach((id, waiter) -> waiter.complete(Optional.ofNullable(found.get(id))));
+        } catch (Exception e) {
+            batch.waiters.values().forEach(waiter -> waiter.completeExceptionally(e));
+        } finally {
+            synchronized (this) {
+                inFlight--;
+            }
+        }
+    }
+
+    private Optional<Run> await(CompletableFuture<Optional<Run>> result) {
+        Deadline deadline = Deadline.current();
+        try {
+            if (deadline == null) {
+                return result.get();
+            }
+            return result.get(deadline.checkRemaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for run lookup", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdown();
+    }
+
+    // Ids waiting for the same query; callers asking for the same id share one future
+    private static final class Batch {
+        private final Map<Integer, CompletableFuture<Optional<Run>>> waiters = new LinkedHashMap<>();
+        private final List<Long> enqueuedAt = new ArrayList<>(); // Of the counted lookups only
+        private Deadline deadline; // Earliest deadline of the callers, null if none of them has one
+        private boolean sent;
+
+        // Called under the coalescer lock only, the query reads the fields after the batch is taken
+        CompletableFuture<Optional<Run>> add(Integer id, boolean counted) {
+            if (counted) {
+                enqueuedAt.add(System.nanoTime());
+            }
+            Deadline callerDeadline = Deadline.current();
+            if (callerDeadline != null && (deadline == null || callerDeadline.isBefore(deadline))) {
+                deadline = callerDeadline;
+            }
+            return waiters.computeIfAbsent(id, key -> new CompletableFuture<>());
+        }
+
+        int size() {
+            return waiters.size();
+        }
+    }
+}
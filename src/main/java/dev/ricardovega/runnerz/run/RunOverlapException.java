@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RunOverlapException extends RuntimeException {
+
+    public RunOverlapException(Run run, Run overlapping) {
+        super("Run '" + run.title() + "' overlaps " + (overlapping.id() != null ? "run " + overlapping.id() : "run '" + overlapping.title() + "'"));
+    }
+}
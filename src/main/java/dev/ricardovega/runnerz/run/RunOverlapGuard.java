@@ -0,0 +1,340 @@
+package dev.ricardovega.runnerz.run;
+
+import dev.ricardovega.runnerz.warmup.WarmupRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Writes runs through RunStorage while checking new and updated runs against the stored ones for overlapping
+// times, e.g. the same activity uploaded from two devices. runnerz.overlap.policy decides what happens to an overlap:
+//   reject  RunOverlapException (409 Conflict), nothing is stored
+//   merge   the new run is folded into the run it overlaps: the union of both times and the larger distance
+//   flag    the run is stored anyway, the overlap is logged and counted in runnerz.runs.overlaps
+// An update is never merged, as that would delete one of two stored runs; the merge policy flags it instead.
+// A run can only overlap runs that started in its window: from runnerz.overlap.max-run-duration before its start
+// until its end. Stored runs are indexed per start day in RunIntervalTrees that are loaded from storage when a
+// window first needs them; at most runnerz.overlap.cached-days days are kept, the least recently used are dropped.
+// Writes lock the days of their window (striped), so the check and the write cannot interleave with another
+// write whose window shares a day, while writes far apart in time run in parallel.
+// Writes that bypass this class (purges, archiving) can leave removed runs in the index, so every overlap it
+// reports is confirmed against storage first, with one query per check. Stored runs longer than max-run-duration are only found by new
+// runs that start within that duration of them.
+@Component
+public class RunOverlapGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(RunOverlapGuard.class);
+    private static final int STRIPES = 64; // Days share a lock when their epoch days are equal modulo this
+
+    public enum Policy {
+        REJECT, MERGE, FLAG
+    }
+
+    private final RunStorage runStorage;
+    private final boolean enabled;
+    private final Policy policy;
+    private final Duration maxRunDuration;
+    private final Counter overlaps;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<LocalDate, RunIntervalTree> days; // Runs by start day, least recently used first, guarded by itself
+
+    public RunOverlapGuard(RunStorage runStorage,
+                           MeterRegistry meterRegistry,
+                           @Value("${runnerz.overlap.enabled:true}") boolean enabled,
+                           @Value("${runnerz.overlap.policy:reject}") String policy,
+                           @Value("${runnerz.overlap.max-run-duration:48h}") Duration maxRunDuration,
+                           @Value("${runnerz.overlap.cached-days:400}") int cachedDays) {
+        this.runStorage = runStorage;
+        this.enabled = enabled;
+        this.policy = Policy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        this.maxRunDuration = maxRunDuration;
+        this.overlaps = Counter.builder("runnerz.runs.overlaps")
+                .description("New runs that overlapped a stored or imported run")
+                .tag("policy", this.policy.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, RunIntervalTree> eldest) {
+                return size() > cachedDays;
+            }
+        };
+    }
+
+    // Store a new run unless the policy rejects or merges it; returns the run as stored
+    public Run create(Run run) {
+        if (!enabled) {
+            return runStorage.create(run);
+        }
+
+        try (Locked locked = lock(windowDays(run))) {
+            List<Run> overlapping = confirmedOverlaps(locked, run, Map.of(), null);
+            if (!overlapping.isEmpty()) {
+                Run existing = overlapping.get(0);
+                countOverlap();
+                switch (policy) {
+                    case REJECT -> throw new RunOverlapException(run, existing);
+                    case MERGE -> {
+                        Run merged = merge(existing, run);
+                        runStorage.update(merged, existing.id());
+                        Run stored = withVersion(merged, existing.version() == null ? 1 : existing.version() + 1);
+                        reindex(locked, existing, stored);
+                        return stored;
+                    }
+                    case FLAG -> log.warn("Run '{}' overlaps runs {}", run.title(), overlapping.stream().map(Run::id).toList());
+                }
+            }
+
+            Run stored = runStorage.create(run);
+            reindex(locked, null, stored);
+            return stored;
+        }
+    }
+
+    // Store a batch of new runs, checked against the stored runs and against each other.
+    // With the reject policy nothing is stored when any run overlaps.
+    public void saveAll(List<Run> runs) {
+        if (!enabled) {
+            runStorage.saveAll(runs);
+            return;
+        }
+
+        TreeSet<LocalDate> window = new TreeSet<>();
+        runs.forEach(run -> window.addAll(windowDays(run)));
+        try (Locked locked = lock(window)) {
+            RunIntervalTree batch = new RunIntervalTree(); // New runs under temporary negative ids, as they may have none
+            Map<Integer, Run> pending = new LinkedHashMap<>(); // New runs by temporary id, in input order
+            Map<Integer, Run> merged = new LinkedHashMap<>(); // Stored runs with new runs merged into them, by id
+            int nextTemporaryId = -1;
+
+            try {
+                for (Run run : runs) {
+                    List<Run> stored = confirmedOverlaps(locked, run, merged, null);
+                    List<Run> imported = batch.overlapping(run.startedOn(), run.completedOn());
+                    if (stored.isEmpty() && imported.isEmpty()) {
+                        pending.put(nextTemporaryId, run);
+                        batch.add(run.withId(nextTemporaryId--));
+                        continue;
+                    }
+
+                    countOverlap();
+                    switch (policy) {
+                        case REJECT -> throw new RunOverlapException(run, stored.isEmpty() ? pending.get(imported.get(0).id()) : stored.get(0));
+                        case MERGE -> {
+                            if (!stored.isEmpty()) {
+                                Run existing = merge(stored.get(0), run);
+                                merged.put(existing.id(), existing);
+                                reindex(locked, stored.get(0), existing); // Later runs in the batch are checked against the merged times
+                            } else {
+                                Integer temporaryId = imported.get(0).id();
+                                Run existing = merge(pending.get(temporaryId), run);
+                                pending.put(temporaryId, existing);
+                                batch.add(existing.withId(temporaryId));
+                            }
+                        }
+                        case FLAG -> {
+                            log.warn("Imported run '{}' overlaps another run", run.title());
+                            pending.put(nextTemporaryId, run);
+                            batch.add(run.withId(nextTemporaryId--));
+                        }
+                    }
+                }
+
+                merged.forEach((id, run) -> runStorage.update(run, id));
+                runStorage.saveAll(List.copyOf(pending.values()));
+            } finally {
+                synchronized (days) {
+                    window.forEach(days::remove); // Reload on next use, to pick up the ids the engine assigned
+                }
+            }
+        }
+    }
+
+    // Replace a run unless the reject policy rejects its new times; the run does not overlap itself
+    public void update(Run run, Integer id) {
+        if (!enabled) {
+            runStorage.update(run, id);
+            return;
+        }
+
+        Run updated = run.withId(id);
+        Optional<Run> previous = runStorage.findById(id);
+        TreeSet<LocalDate> touched = new TreeSet<>(windowDays(updated));
+        previous.ifPresent(existing -> touched.add(existing.startedOn().toLocalDate())); // To take it out of its old day
+        try (Locked locked = lock(touched)) {
+            List<Run> overlapping = confirmedOverlaps(locked, updated, Map.of(), id);
+            if (!overlapping.isEmpty()) {
+                countOverlap();
+                if (policy == Policy.REJECT) {
+                    throw new RunOverlapException(updated, overlapping.get(0));
+                }
+                log.warn("Updated run {} overlaps runs {}", id, overlapping.stream().map(Run::id).toList());
+            }
+
+            runStorage.update(run, id);
+            reindex(locked, previous.orElse(null), updated);
+        }
+    }
+
+    public void delete(Integer id) {
+        Optional<Run> previous = runStorage.findById(id);
+        if (previous.isEmpty()) {
+            runStorage.delete(id); // Throws RunNotFoundException, or deletes a run created since
+            return;
+        }
+        try (Locked locked = lock(List.of(previous.get().startedOn().toLocalDate()))) {
+            runStorage.delete(id);
+            reindex(locked, previous.get(), null);
+        }
+    }
+
+    // Runs in the index that overlap the given run and still do in storage; runs that were deleted or moved
+    // since they were indexed are corrected in the index. Runs in overrides are taken as they are, the run
+    // with id self (the run being updated, if any) is skipped. All candidates are read with one query.
+    private List<Run> confirmedOverlaps(Locked locked, Run run, Map<Integer, Run> overrides, Integer self) {
+        List<Run> candidates = new ArrayList<>();
+        for (LocalDate day : windowDays(run)) {
+            for (Run candidate : day(day).overlapping(run.startedOn(), run.completedOn())) {
+                if (!candidate.id().equals(self)) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        List<Integer> unconfirmed = candidates.stream().map(Run::id).filter(id -> !overrides.containsKey(id)).toList();
+        Map<Integer, Run> stored = new HashMap<>();
+        if (!unconfirmed.isEmpty()) {
+            runStorage.findAllById(unconfirmed).forEach(current -> stored.put(current.id(), current));
+        }
+
+        List<Run> confirmed = new ArrayList<>();
+        for (Run candidate : candidates) {
+            if (overrides.containsKey(candidate.id())) {
+                confirmed.add(candidate);
+                continue;
+            }
+            Run current = stored.get(candidate.id());
+            if (current != null && overlaps(current, run.startedOn(), run.completedOn())) {
+                confirmed.add(current);
+            }
+            if (!candidate.equals(current)) {
+                reindex(locked, candidate, current); // Deleted or moved without going through this class
+            }
+        }
+        return confirmed;
+    }
+
+    // Move a run in the index from its previous start day to its current one; either may be null.
+    // Days that are not loaded are left alone, they read the run from storage when they are.
+    private void reindex(Locked locked, Run previous, Run current) {
+        if (previous != null && locked.holds(previous.startedOn().toLocalDate())) {
+            loaded(previous.startedOn().toLocalDate()).ifPresent(day -> day.remove(previous.id()));
+        }
+        if (current != null && locked.holds(current.startedOn().toLocalDate())) {
+            loaded(current.startedOn().toLocalDate()).ifPresent(day -> day.add(current));
+        }
+    }
+
+    // Runs started on the given day, loaded from storage if needed; the caller holds the day's lock
+    private RunIntervalTree day(LocalDate day) {
+        Optional<RunIntervalTree> loaded = loaded(day);
+        if (loaded.isPresent()) {
+            return loaded.get();
+        }
+        RunIntervalTree runs = new RunIntervalTree();
+        runStorage.findAllStartedBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay()).forEach(runs::add);
+        log.debug("Indexed {} runs started on {} for overlap detection", runs.size(), day);
+        synchronized (days) {
+            days.put(day, runs);
+        }
+        return runs;
+    }
+
+    private Optional<RunIntervalTree> loaded(LocalDate day) {
+        synchronized (days) {
+            return Optional.ofNullable(days.get(day));
+        }
+    }
+
+    // Start days of the runs the given run could overlap
+    private List<LocalDate> windowDays(Run run) {
+        List<LocalDate> window = new ArrayList<>();
+        LocalDate last = run.completedOn().toLocalDate();
+        for (LocalDate day = run.startedOn().minus(maxRunDuration).toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            window.add(day);
+        }
+        return window;
+    }
+
+    // Lock the stripes of the given days in stripe order, so two writers never wait for each other in a cycle
+    private Locked lock(Collection<LocalDate> window) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        window.forEach(day -> indexes.add(stripe(day)));
+        List<ReentrantLock> held = new ArrayList<>();
+        for (int index : indexes) {
+            stripes[index].lock();
+            held.add(stripes[index]);
+        }
+        return new Locked(indexes, held);
+    }
+
+    private static int stripe(LocalDate day) {
+        return (int) Math.floorMod(day.toEpochDay(), STRIPES);
+    }
+
+    // Warm-up requests are not counted, they would skew the metric right after startup
+    private void countOverlap() {
+        if (!WarmupRequest.isCurrent()) {
+            overlaps.increment();
+        }
+    }
+
+    private static boolean overlaps(Run run, LocalDateTime start, LocalDateTime end) {
+        return run.startedOn().isBefore(end) && run.completedOn().isAfter(start);
+    }
+
+    // The existing run, stretched to cover both runs, with the larger distance of the two
+    private static Run merge(Run existing, Run added) {
+        LocalDateTime startedOn = added.startedOn().isBefore(existing.startedOn()) ? added.startedOn() : existing.startedOn();
+        LocalDateTime completedOn = added.completedOn().isAfter(existing.completedOn()) ? added.completedOn() : existing.completedOn();
+        Integer miles = existing.miles() == null ? added.miles()
+                : added.miles() == null ? existing.miles() : Integer.valueOf(Math.max(existing.miles(), added.miles()));
+        return new Run(existing.id(), existing.title(), startedOn, completedOn, miles, existing.location(), existing.version());
+    }
+
+    private static Run withVersion(Run run, Integer version) {
+        return new Run(run.id(), run.title(), run.startedOn(), run.completedOn(), run.miles(), run.location(), version);
+    }
+
+    // Stripes held by one write, released in reverse order
+    private record Locked(TreeSet<Integer> stripes, List<ReentrantLock> locks) implements AutoCloseable {
+
+        boolean holds(LocalDate day) {
+            return stripes.contains(stripe(day));
+        }
+
+        @Override
+        public void close() {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+}
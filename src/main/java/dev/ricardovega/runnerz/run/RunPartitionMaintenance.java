@@ -0,0 +1,122 @@
+package dev.ricardovega.runnerz.run;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.TreeSet;
+
+// Keeps the monthly partitions of the PostgreSQL run table in place on every shard.
+// Creates partitions ahead of time and moves rows that landed in run_default into their own month.
+@Component
+@ConditionalOnProperty(prefix = "runnerz.partitioning", name = "enabled", havingValue = "true")
+public class RunPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(RunPartitionMaintenance.class);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'run_y'uuuu'm'MM");
+
+    private final RunShards shards;
+    private final int monthsAhead; // Number of future months that always have a partition
+
+    public RunPartitionMaintenance(RunShards shards,
+                                   @Value("${runnerz.partitioning.months-ahead:2}") int monthsAhead) {
+        this.shards = shards;
+        this.monthsAhead = monthsAhead;
+    }
+
+    // Name of the partition that holds the runs started in the given month
+    static String partitionName(YearMonth month) {
+        return month.format(PARTITION_NAME);
+    }
+
+    // Run once the seed data is loaded, and then on the configured schedule
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${runnerz.partitioning.cron:0 0 3 * * *}")
+    public void maintain() {
+        for (RunShards.Shard shard : shards.all()) {
+            TreeSet<YearMonth> months = new TreeSet<>(monthsInDefaultPartition(shard));
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= monthsAhead; i++) {
+                months.add(current.plusMonths(i));
+            }
+            months.forEach(month -> ensurePartition(shard, month));
+        }
+    }
+
+    // Create the partition for a month if it does not exist yet, moving its rows out of run_default
+    public void ensurePartition(RunShards.Shard shard, YearMonth month) {
+        String partition = partitionName(month);
+        if (partitionExists(shard, partition)) {
+            return;
+        }
+
+        JdbcClient jdbcClient = shard.jdbcClient();
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        Integer moved = shard.transactionTemplate().execute(status -> {
+            jdbcClient.sql("CREATE TABLE " + partition + " (LIKE run INCLUDING DEFAULTS)").update();
+            int rows = jdbcClient.sql("INSERT INTO " + partition + " SELECT * FROM run_default WHERE started_on >= ? AND started_on < ?")
+                    .params(from, to)
+                    .update();
+            jdbcClient.sql("DELETE FROM run_default WHERE started_on >= ? AND started_on < ?")
+                    .params(from, to)
+                    .update();
+            jdbcClient.sql("CREATE UNIQUE INDEX " + partition + "_id ON " + partition + " (id)").update(); // See schema.sql
+            attachPartition(shard, month);
+            return rows;
+        });
+        log.info("Created partition {} on shard {} and moved {} runs into it", partition, shard.index(), moved);
+    }
+
+    // Attach an existing table as the partition for a month, e.g. again after a failed archive
+    public void attachPartition(RunShards.Shard shard, YearMonth month) {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        // Partition bounds must be literals; they come from a YearMonth, never from user input
+        shard.jdbcClient().sql("ALTER TABLE run ATTACH PARTITION " + partitionName(month)
+                        + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')")
+                .update();
+    }
+
+    // Monthly partitions currently attached to the run table of a shard, oldest first
+    public List<YearMonth> partitions(RunShards.Shard shard) {
+        return shard.jdbcClient().sql("""
+                        SELECT c.relname FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        JOIN pg_class p ON p.oid = i.inhparent
+                        WHERE p.relname = 'run' AND c.relname LIKE 'run\\_y%'
+                        """)
+                .query(String.class)
+                .list()
+                .stream()
+                .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                .sorted()
+                .toList();
+    }
+
+    private boolean partitionExists(RunShards.Shard shard, String partition) {
+        return shard.jdbcClient().sql("SELECT to_regclass(?) IS NOT NULL")
+                .param(partition)
+                .query(Boolean.class)
+                .single();
+    }
+
+    private List<YearMonth> monthsInDefaultPartition(RunShards.Shard shard) {
+        return shard.jdbcClient().sql("SELECT DISTINCT date_trunc('month', started_on) FROM run_default")
+                .query(Timestamp.class)
+                .list()
+                .stream()
+                .map(timestamp -> YearMonth.from(timestamp.toLocalDateTime()))
+                .toList();
+    }
+}
@@ -0,0 +1,20 @@
+package dev.ricardovega.runnerz.run;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// Progress of a purge job as returned by the purge endpoints
+public record RunPurge(
+        String id,
+        LocalDateTime before,
+        Location location,
+        Status status,
+        long deleted,
+        int chunks,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+}
@@ -0,0 +1,42 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/runs") // Shares the base path with RunController; only handles bulk deletes
+public class RunPurgeController {
+
+    private final RunPurgeService purgeService;
+
+    // Constructor to inject the RunPurgeService dependency
+    public RunPurgeController(RunPurgeService purgeService) {
+        this.purgeService = purgeService;
+    }
+
+    // Start deleting every run started before the given time, optionally only at one location
+    // Returns 202 with the job; its progress is at the Location header
+    @DeleteMapping(value = "", params = "before")
+    ResponseEntity<RunPurge> purge(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                   @RequestParam(required = false) Location location) {
+        RunPurge purge = purgeService.start(before, location);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/runs/purges/" + purge.id()))
+                .body(purge);
+    }
+
+    // Progress of a purge job
+    @GetMapping("/purges/{id}")
+    RunPurge findPurge(@PathVariable String id) {
+        return purgeService.find(id).orElseThrow(RunPurgeNotFoundException::new);
+    }
+}
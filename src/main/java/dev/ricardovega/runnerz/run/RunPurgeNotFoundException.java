@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RunPurgeNotFoundException extends RuntimeException {
+
+    public RunPurgeNotFoundException() {
+        super("Could not find purge job");
+    }
+}
@@ -0,0 +1,169 @@
+package dev.ricardovega.runnerz.run;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Deletes runs in the background in small chunks, one short transaction per chunk with a pause in between,
+// so a large purge never holds locks for long or keeps connections away from requests.
+// Purges run one at a time, in the order they were started.
+// Job status is kept in memory only: it is lost on restart, and only the last MAX_JOBS finished jobs are kept,
+// next to every queued or running one. On shutdown a running purge stops after its current chunk.
+@Service
+public class RunPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(RunPurgeService.class);
+    private static final int MAX_JOBS = 100; // Finished jobs kept for the progress endpoint
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30); // For the chunk in progress
+
+    private final RunStorage runStorage;
+    private final int chunkSize;
+    private final Duration pause;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("run-purge").factory());
+    private final Map<String, Job> jobs = new LinkedHashMap<>(); // In start order, guarded by itself
+    private int finishedJobs; // Jobs in the map that are completed or failed, guarded by jobs
+    private volatile boolean stopping;
+
+    public RunPurgeService(RunStorage runStorage,
+                           @Value("${runnerz.purge.chunk-size:500}") int chunkSize,
+                           @Value("${runnerz.purge.pause:100ms}") Duration pause) {
+        this.runStorage = runStorage;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    // Queue a purge of the runs started before the given time, optionally only at one location
+    public RunPurge start(LocalDateTime before, Location location) {
+        Job job = new Job(UUID.randomUUID().toString(), before, location);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        executor.execute(() -> {
+            run(job);
+            synchronized (jobs) {
+                finishedJobs++;
+                dropOldFinishedJobs();
+            }
+        });
+        return job.snapshot();
+    }
+
+    public Optional<RunPurge> find(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(Job::snapshot);
+        }
+    }
+
+    // Stop taking purges, let the running one finish its chunk and fail the queued ones
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Purge still running after {}, interrupting it", SHUTDOWN_TIMEOUT);
+            executor.shutdownNow();
+        }
+    }
+
+    // Forget the oldest finished jobs beyond MAX_JOBS; queued and running jobs are always kept
+    private void dropOldFinishedJobs() {
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (finishedJobs > MAX_JOBS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finishedJobs--;
+            }
+        }
+    }
+
+    private void run(Job job) {
+        if (stopping) {
+            job.finished("Stopped at shutdown");
+            return;
+        }
+        job.running();
+        try {
+            int deleted;
+            do {
+                deleted = runStorage.deleteStartedBefore(job.before, job.location, chunkSize);
+                job.chunkDeleted(deleted);
+                if (deleted == chunkSize && !pause.isZero()) {
+                    Thread.sleep(pause); // Let requests have the connections and locks for a while
+                }
+            } while (deleted == chunkSize && !stopping);
+            if (deleted == chunkSize) {
+                job.finished("Stopped at shutdown"); // Chunks already deleted stay deleted
+                log.warn("Purge {} stopped at shutdown after {} runs", job.id, job.snapshot().deleted());
+                return;
+            }
+            job.finished(null);
+            log.info("Purge {} deleted {} runs started before {}", job.id, job.snapshot().deleted(), job.before);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finished("Interrupted");
+        } catch (RuntimeException e) {
+            log.error("Purge {} failed", job.id, e);
+            job.finished(e.getMessage()); // Chunks already deleted stay deleted
+        }
+    }
+
+    // Mutable state of a purge, only changed by the purge thread
+    private static final class Job {
+
+        private final String id;
+        private final LocalDateTime before;
+        private final Location location;
+        private volatile RunPurge.Status status = RunPurge.Status.QUEUED;
+        private volatile long deleted;
+        private volatile int chunks;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Job(String id, LocalDateTime before, Location location) {
+            this.id = id;
+            this.before = before;
+            this.location = location;
+        }
+
+        private void running() {
+            startedAt = Instant.now();
+            status = RunPurge.Status.RUNNING;
+        }
+
+        private void chunkDeleted(int count) {
+            if (count > 0) {
+                deleted += count;
+                chunks++;
+            }
+        }
+
+        private void finished(String failure) {
+            error = failure;
+            finishedAt = Instant.now();
+            status = failure == null ? RunPurge.Status.COMPLETED : RunPurge.Status.FAILED;
+        }
+
+        private boolean isFinished() {
+            return status == RunPurge.Status.COMPLETED || status == RunPurge.Status.FAILED;
+        }
+
+        private RunPurge snapshot() {
+            return new RunPurge(id, before, location, status, deleted, chunks, startedAt, finishedAt, error);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+
+public record RunRollup(
+        RollupPeriod period, // Week or month the totals cover
+        @JsonProperty("period_start") LocalDate periodStart, // First day of the period
+        Location location, // Location the totals are for
+        @JsonProperty("run_count") int runCount, // Number of runs started in the period
+        long miles // Total miles of those runs
+) {
+}
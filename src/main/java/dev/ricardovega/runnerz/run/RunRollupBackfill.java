@@ -0,0 +1,33 @@
+package dev.ricardovega.runnerz.run;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Rebuilds the rollups of every shard from the run table at startup.
+// Run once with --runnerz.rollup.backfill=true for data stored before rollups existed,
+// ideally before traffic is let in since writes during the rebuild are not coordinated with it.
+@Component
+@Order(1) // After RunJsonDataLoader
+@ConditionalOnProperty(prefix = "runnerz.rollup", name = "backfill", havingValue = "true")
+public class RunRollupBackfill implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RunRollupBackfill.class);
+    private final RunShards shards;
+    private final RunRollupRepository rollupRepository;
+
+    public RunRollupBackfill(RunShards shards, RunRollupRepository rollupRepository) {
+        this.shards = shards;
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        long start = System.currentTimeMillis();
+        shards.all().forEach(rollupRepository::rebuild);
+        log.info("Rollup backfill finished in {} ms", System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,33 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/rollups") // Maps the controller to the base path "/api/rollups"
+@ConditionalOnProperty(prefix = "runnerz.storage", name = "engine", havingValue = "jdbc", matchIfMissing = true) // Only the jdbc engine maintains rollups
+public class RunRollupController {
+
+    private final RunRollupRepository rollupRepository;
+
+    // Constructor to inject the RunRollupRepository dependency
+    public RunRollupController(RunRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    // Weekly or monthly totals in [from, to), optionally for a single location
+    @GetMapping("")
+    List<RunRollup> find(@RequestParam RollupPeriod period,
+                         @RequestParam(required = false) Location location,
+                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return rollupRepository.find(period, location, from, to);
+    }
+}
@@ -0,0 +1,223 @@
+package dev.ricardovega.runnerz.run;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Weekly and monthly run counts and mileage per location, kept in the run_rollup table of every shard.
+// JdbcClientRunRepository applies each write to the rollups in the same transaction, so charts can read
+// a few rows per period instead of aggregating the run table.
+@Repository
+public class RunRollupRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(RunRollupRepository.class);
+    private static final Comparator<RunRollup> ORDER = Comparator.comparing(RunRollup::periodStart)
+            .thenComparing(RunRollup::location);
+
+    // Upsert on PostgreSQL: conflicts on the primary key are resolved atomically, where concurrent MERGEs
+    // of a new period can both take the NOT MATCHED branch and one of them fail on the primary key
+    private static final String UPSERT = """
+            INSERT INTO run_rollup(period, period_start, location, run_count, miles)
+            VALUES (:period, :periodStart, :location, :runs, :miles)
+            ON CONFLICT (period, period_start, location)
+            DO UPDATE SET run_count = run_rollup.run_count + EXCLUDED.run_count, miles = run_rollup.miles + EXCLUDED.miles
+            """;
+
+    // Standard MERGE for other databases (H2 in tests), which do not support ON CONFLICT ... DO UPDATE
+    private static final String MERGE = """
+            MERGE INTO run_rollup r
+            USING (SELECT CAST(:period AS VARCHAR(5)) AS period, CAST(:periodStart AS DATE) AS period_start,
+                          CAST(:location AS VARCHAR(10)) AS location, CAST(:runs AS INT) AS run_count, CAST(:miles AS BIGINT) AS miles) d
+            ON r.period = d.period AND r.period_start = d.period_start AND r.location = d.location
+            WHEN MATCHED THEN UPDATE SET run_count = r.run_count + d.run_count, miles = r.miles + d.miles
+            WHEN NOT MATCHED THEN INSERT (period, period_start, location, run_count, miles)
+                VALUES (d.period, d.period_start, d.location, d.run_count, d.miles)
+            """;
+
+    private final RunShards shards;
+    private final Map<Integer, String> upserts = new ConcurrentHashMap<>(); // Upsert statement by shard index
+
+    public RunRollupRepository(RunShards shards) {
+        this.shards = shards;
+    }
+
+    // Add a stored run to the rollups of its shard; must run in the transaction that stored it
+    public void add(RunShards.Shard shard, Run run) {
+        apply(shard, run, 1);
+    }
+
+    // Remove a run from the rollups of its shard; must run in the transaction that changed it
+    public void subtract(RunShards.Shard shard, Run run) {
+        apply(shard, run, -1);
+    }
+
+    // Remove many runs of a shard from its rollups with one statement per period, location and kind of period
+    // instead of per run; must run in the transaction that deleted them
+    public void subtractAll(RunShards.Shard shard, List<Run> runs) {
+        Map<RollupKey, long[]> totals = new HashMap<>();
+        for (Run run : runs) {
+            LocalDate startedOn = run.startedOn().toLocalDate();
+            for (RollupPeriod period : RollupPeriod.values()) {
+                long[] total = totals.computeIfAbsent(new RollupKey(period, period.start(startedOn), run.location()), key -> new long[2]);
+                total[0]++;
+                total[1] += run.miles();
+            }
+        }
+        totals.forEach((key, total) -> {
+            upsert(shard, key.period(), key.periodStart(), key.location(), (int) -total[0], -total[1]);
+            dropEmpty(shard.jdbcClient(), key.period(), key.periodStart(), key.location());
+        });
+    }
+
+    // Totals for one kind of period in [from, to), summed over all shards
+    // The location is optional; without it every location is returned separately
+    public List<RunRollup> find(RollupPeriod period, Location location, LocalDate from, LocalDate to) {
+        String sql = "SELECT period, period_start, location, run_count, miles FROM run_rollup "
+                + "WHERE period = :period AND period_start >= :from AND period_start < :to"
+                + (location == null ? "" : " AND location = :location");
+        List<RunRollup> perShard = shards.scatter(shard -> shard.jdbcClient().sql(sql)
+                        .params(rollupParams(period, location, from, to))
+                        .query((rs, rowNum) -> new RunRollup(
+                                RollupPeriod.valueOf(rs.getString("period")),
+                                rs.getObject("period_start", LocalDate.class),
+                                Location.valueOf(rs.getString("location")),
+                                rs.getInt("run_count"),
+                                rs.getLong("miles")))
+                        .list(), ORDER);
+        return sumShards(perShard);
+    }
+
+    // Recompute the rollups of a shard from its run table, e.g. for data stored before rollups existed.
+    // Every period after the one of the oldest stored run is replaced, so periods whose runs are all gone do not
+    // keep stale totals. Older periods only hold runs that were archived and are left untouched. The period of the
+    // oldest run may hold archived runs too (e.g. a week that started in an archived month), so its row is kept
+    // when there is one, and only computed from the stored runs when there is none.
+    public void rebuild(RunShards.Shard shard) {
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            Optional<LocalDate> oldest = shard.jdbcClient().sql("SELECT MIN(started_on) FROM run")
+                    .query((rs, rowNum) -> Optional.ofNullable(rs.getTimestamp(1)).map(timestamp -> timestamp.toLocalDateTime().toLocalDate()))
+                    .single();
+            if (oldest.isEmpty()) {
+                log.info("No runs on shard {}, rollups left as they are", shard.index());
+                return;
+            }
+
+            Map<RollupKey, long[]> totals = new HashMap<>();
+            shard.jdbcClient().sql("SELECT started_on, miles, location FROM run")
+                    .query(rs -> {
+                        LocalDate startedOn = rs.getTimestamp("started_on").toLocalDateTime().toLocalDate();
+                        Location location = Location.valueOf(rs.getString("location"));
+                        for (RollupPeriod period : RollupPeriod.values()) {
+                            long[] total = totals.computeIfAbsent(new RollupKey(period, period.start(startedOn), location), key -> new long[2]);
+                            total[0]++;
+                            total[1] += rs.getInt("miles");
+                        }
+                    });
+
+            int deleted = 0;
+            for (RollupPeriod period : RollupPeriod.values()) {
+                boolean straddles = straddles(period, period.start(oldest.get()), oldest.get());
+                deleted += shard.jdbcClient().sql("DELETE FROM run_rollup WHERE period = :period AND period_start " + (straddles ? ">" : ">=") + " :first")
+                        .param("period", period.name())
+                        .param("first", period.start(oldest.get()))
+                        .update();
+            }
+            totals.forEach((key, total) -> {
+                if (!straddles(key.period(), key.periodStart(), oldest.get())) {
+                    shard.jdbcClient().sql("INSERT INTO run_rollup(period, period_start, location, run_count, miles) VALUES(?,?,?,?,?)")
+                            .params(key.period().name(), key.periodStart(), key.location().name(), (int) total[0], total[1])
+                            .update();
+                } else {
+                    shard.jdbcClient().sql("INSERT INTO run_rollup(period, period_start, location, run_count, miles) SELECT ?,?,?,?,? "
+                                    + "WHERE NOT EXISTS (SELECT 1 FROM run_rollup WHERE period = ? AND period_start = ? AND location = ?)")
+                            .params(key.period().name(), key.periodStart(), key.location().name(), (int) total[0], total[1],
+                                    key.period().name(), key.periodStart(), key.location().name())
+                            .update();
+                }
+            });
+            log.info("Rebuilt {} rollup rows on shard {}, replacing {}", totals.size(), shard.index(), deleted);
+        });
+    }
+
+    // True for the period of the oldest stored run when it started before that run, so it may hold archived runs
+    private static boolean straddles(RollupPeriod period, LocalDate periodStart, LocalDate oldest) {
+        return periodStart.equals(period.start(oldest)) && periodStart.isBefore(oldest);
+    }
+
+    private void apply(RunShards.Shard shard, Run run, int sign) {
+        LocalDate startedOn = run.startedOn().toLocalDate();
+        for (RollupPeriod period : RollupPeriod.values()) {
+            LocalDate periodStart = period.start(startedOn);
+            upsert(shard, period, periodStart, run.location(), sign, (long) sign * run.miles());
+            if (sign < 0) {
+                dropEmpty(shard.jdbcClient(), period, periodStart, run.location());
+            }
+        }
+    }
+
+    private void upsert(RunShards.Shard shard, RollupPeriod period, LocalDate periodStart, Location location, int runs, long miles) {
+        shard.jdbcClient().sql(upserts.computeIfAbsent(shard.index(), index -> upsertFor(shard)))
+                .param("period", period.name())
+                .param("periodStart", periodStart)
+                .param("location", location.name())
+                .param("runs", runs)
+                .param("miles", miles)
+                .update();
+    }
+
+    // UPSERT on PostgreSQL, MERGE on anything else
+    private static String upsertFor(RunShards.Shard shard) {
+        String database = shard.jdbcClient().sql("SELECT 1")
+                .query((ResultSetExtractor<String>) rs -> rs.getStatement().getConnection().getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(database) ? UPSERT : MERGE;
+    }
+
+    // Drop a period that no longer contains any run
+    private static void dropEmpty(JdbcClient jdbcClient, RollupPeriod period, LocalDate periodStart, Location location) {
+        jdbcClient.sql("DELETE FROM run_rollup WHERE period = :period AND period_start = :periodStart AND location = :location AND run_count <= 0")
+                .param("period", period.name())
+                .param("periodStart", periodStart)
+                .param("location", location.name())
+                .update();
+    }
+
+    private static Map<String, Object> rollupParams(RollupPeriod period, Location location, LocalDate from, LocalDate to) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("period", period.name());
+        params.put("from", from);
+        params.put("to", to);
+        if (location != null) {
+            params.put("location", location.name());
+        }
+        return params;
+    }
+
+    // Rows from different shards for the same period and location are added up
+    private static List<RunRollup> sumShards(List<RunRollup> ordered) {
+        List<RunRollup> summed = new ArrayList<>();
+        for (RunRollup rollup : ordered) {
+            RunRollup last = summed.isEmpty() ? null : summed.get(summed.size() - 1);
+            if (last != null && last.periodStart().equals(rollup.periodStart()) && last.location() == rollup.location()) {
+                summed.set(summed.size() - 1, new RunRollup(last.period(), last.periodStart(), last.location(),
+                        last.runCount() + rollup.runCount(), last.miles() + rollup.miles()));
+            } else {
+                summed.add(rollup);
+            }
+        }
+        return summed;
+    }
+
+    private record RollupKey(RollupPeriod period, LocalDate periodStart, Location location) {
+    }
+}
@@ -0,0 +1,51 @@
+package dev.ricardovega.runnerz.run;
+
+import dev.ricardovega.runnerz.tracing.TracingDataSourcePostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class RunShardingConfig {
+
+    // Shard 0 is the primary datasource, every URL in runnerz.sharding.urls adds one more shard.
+    // Additional shards use the primary's credentials and get the same spring.sql.init scripts.
+    // Their datasources are not beans; RunShards closes them when the context closes.
+    @Bean(destroyMethod = "close")
+    RunShards runShards(JdbcClient jdbcClient,
+                        TransactionTemplate transactionTemplate,
+                        DataSourceProperties dataSourceProperties,
+                        ObjectProvider<SqlInitializationProperties> sqlInitializationProperties,
+                        ObjectProvider<TracingDataSourcePostProcessor> tracing,
+                        @Value("${runnerz.sharding.urls:}") List<String> urls) {
+        List<RunShards.Shard> shards = new ArrayList<>();
+        List<DataSource> dataSources = new ArrayList<>();
+        shards.add(new RunShards.Shard(0, jdbcClient, transactionTemplate));
+
+        for (String url : urls) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .url(url)
+                    .username(dataSourceProperties.getUsername())
+                    .password(dataSourceProperties.getPassword())
+                    .build();
+            dataSources.add(dataSource);
+            sqlInitializationProperties.ifAvailable(properties ->
+                    new SqlDataSourceScriptDatabaseInitializer(dataSource, properties).initializeDatabase());
+            TracingDataSourcePostProcessor tracingDataSources = tracing.getIfAvailable();
+            shards.add(RunShards.Shard.of(shards.size(), tracingDataSources == null ? dataSource
+                    : tracingDataSources.wrap("shard" + shards.size(), dataSource))); // Statements on extra shards are traced too
+        }
+        return new RunShards(shards, dataSources);
+    }
+}
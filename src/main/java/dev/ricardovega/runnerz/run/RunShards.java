@@ -0,0 +1,144 @@
+package dev.ricardovega.runnerz.run;
+
+import dev.ricardovega.runnerz.deadline.Deadline;
+import dev.ricardovega.runnerz.deadline.DeadlineAwareJdbcTemplate;
+import dev.ricardovega.runnerz.tracing.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// The databases runs are spread over.
+// A run lives on the shard picked by a hash of its id; shard 0 is the application's primary datasource.
+// Closing it stops the scatter-gather executor and closes the datasources it was given to own.
+public class RunShards implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RunShards.class);
+
+    private final List<Shard> shards;
+    private final List<DataSource> ownedDataSources; // Created for extra shards, closed with this
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor(); // Runs scatter-gather queries
+
+    public RunShards(List<Shard> shards) {
+        this(shards, List.of());
+    }
+
+    public RunShards(List<Shard> shards, List<DataSource> ownedDataSources) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.ownedDataSources = List.copyOf(ownedDataSources);
+    }
+
+    // Build shards for plain datasources, each with its own transaction manager
+    public static RunShards of(List<DataSource> dataSources) {
+        List<Shard> shards = new ArrayList<>();
+        for (DataSource dataSource : dataSources) {
+            shards.add(Shard.of(shards.size(), dataSource));
+        }
+        return new RunShards(shards);
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard primary() {
+        return shards.get(0);
+    }
+
+    // Shard that owns the run with the given id
+    public Shard forId(int id) {
+        return shards.get(Math.floorMod(mix(id), shards.size()));
+    }
+
+    // Run a query on every shard in parallel and merge the results in the given order.
+    // The first shard to fail fails the whole query, and the queries still running on the other shards are cancelled.
+    public <T> List<T> scatter(Function<Shard, List<T>> query, Comparator<? super T> order) {
+        if (shards.size() == 1) {
+            return query.apply(primary());
+        }
+
+        CompletionService<List<T>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<List<T>>> futures = new ArrayList<>();
+        List<T> merged = new ArrayList<>();
+        try {
+            for (Shard shard : shards) {
+                futures.add(completion.submit(Span.propagate(Deadline.propagate(() -> query.apply(shard))))); // Shard queries share the request deadline and span
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                merged.addAll(join(completion.take())); // In completion order, so a failure is seen as soon as it happens
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true)); // Only the queries still running are affected
+        }
+        merged.sort(order); // Each shard is already sorted, a single sort keeps the merge simple
+        return merged;
+    }
+
+    // Called by Spring when the context closes; running shard queries are interrupted
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (DataSource dataSource : ownedDataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close shard datasource", e);
+                }
+            }
+        }
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException; // Keep Spring's DataAccessException types intact
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+    }
+
+    // Spread consecutive ids (which come in blocks from RunIdAllocator) evenly over the shards
+    private static int mix(int id) {
+        int h = id;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public record Shard(int index, JdbcClient jdbcClient, TransactionTemplate transactionTemplate) {
+
+        static Shard of(int index, DataSource dataSource) {
+            return new Shard(index,
+                    JdbcClient.create(new DeadlineAwareJdbcTemplate(dataSource)),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.ricardovega.runnerz.run;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Storage engine for runs, selected with runnerz.storage.engine:
+//   jdbc        JdbcClientRunRepository (default): sharded, maintains rollups, pushes projections down into SQL
+//   spring-data SpringDataRunStorage: Spring Data JDBC on the primary datasource, with optimistic locking
+//   memory      InMemoryRunRepository: no database, data is lost on restart
+// Every engine must pass RunStorageConformanceTest, so callers can rely on the same semantics everywhere.
+// Run tracks, rollups and the rollup backfill live in the jdbc engine's tables; RunStorageConfig rejects them
+// at startup for the other engines.
+public interface RunStorage {
+
+    // All runs, ordered by id
+    List<Run> findAll();
+
+    // One page of size runs ordered by id, pages counted from 0
+    default List<Run> findAll(int page, int size) {
+        return findAll().stream().skip((long) page * size).limit(size).toList();
+    }
+
+    // The run with the given id, empty if there is none
+    Optional<Run> findById(Integer id);
+
+    // The runs with the given ids that exist, in any order; engines that can, read them with a single query
+    default List<Run> findAllById(Collection<Integer> ids) {
+        return ids.stream().map(this::findById).flatMap(Optional::stream).toList();
+    }
+
+    // Runs at the given location (the Location name), ordered by id
+    List<Run> findByLocation(String location);
+
+    // Runs started in [from, to), ordered by start time
+    default List<Run> findAllStartedBetween(LocalDateTime from, LocalDateTime to) {
+        return findAll().stream()
+                .filter(run -> !run.startedOn().isBefore(from) && run.startedOn().isBefore(to))
+                .sorted(Comparator.comparing(Run::startedOn).thenComparing(Run::id))
+                .toList();
+    }
+
+    // Store a new run at version 0 and return it as stored; runs without an id get one, explicit ids are kept
+    Run create(Run run);
+
+    // Replace the run with the given id and increment its version; throws RunNotFoundException if there is none
+    void update(Run run, Integer id);
+
+    // Delete the run with the given id; throws RunNotFoundException if there is none
+    void delete(Integer id);
+
+    int count();
+
+    // Delete up to limit runs started before the given time, optionally only at one location, oldest first;
+    // returns how many were deleted, so fewer than limit means none are left
+    default int deleteStartedBefore(LocalDateTime before, Location location, int limit) {
+        List<Run> chunk = findAll().stream()
+                .filter(run -> run.startedOn().isBefore(before) && (location == null || run.location() == location))
+                .sorted(Comparator.comparing(Run::startedOn).thenComparing(Run::id))
+                .limit(limit)
+                .toList();
+        for (Run run : chunk) {
+            try {
+                delete(run.id());
+            } catch (RunNotFoundException e) {
+                // Deleted concurrently, gone either way
+            }
+        }
+        return chunk.size();
+    }
+
+    default void saveAll(List<Run> runs) {
+        runs.forEach(this::create);
+    }
+
+    // Only the given fields of all runs, ordered by id; engines that can, avoid reading the other fields
+    default List<Map<String, Object>> findAll(Set<RunField> fields) {
+        return findAll().stream().map(run -> RunField.project(run, fields)).toList();
+    }
+
+    // Only the given fields of the runs at a location, ordered by id
+    default List<Map<String, Object>> findByLocation(String location, Set<RunField> fields) {
+        return findByLocation(location).stream().map(run -> RunField.project(run, fields)).toList();
+    }
+}
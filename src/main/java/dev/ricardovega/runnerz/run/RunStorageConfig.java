@@ -0,0 +1,36 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Fails startup for settings the selected runnerz.storage.engine cannot honour, instead of silently
+// sending some features to the jdbc engine's tables. Only the jdbc engine has shards, rollups (and their
+// backfill) and run tracks; with the other engines /api/rollups and /api/runs/{id}/track are not mapped.
+@Configuration
+public class RunStorageConfig {
+
+    static final List<String> ENGINES = List.of("jdbc", "spring-data", "memory");
+
+    public RunStorageConfig(@Value("${runnerz.storage.engine:jdbc}") String engine,
+                            @Value("${runnerz.sharding.urls:}") List<String> shardUrls,
+                            @Value("${runnerz.rollup.backfill:false}") boolean backfill) {
+        validate(engine, shardUrls, backfill);
+    }
+
+    static void validate(String engine, List<String> shardUrls, boolean backfill) {
+        if (!ENGINES.contains(engine)) {
+            throw new IllegalStateException("Unknown runnerz.storage.engine '" + engine + "', expected one of " + ENGINES);
+        }
+        if (engine.equals("jdbc")) {
+            return;
+        }
+        if (!shardUrls.isEmpty()) {
+            throw new IllegalStateException("runnerz.sharding.urls needs runnerz.storage.engine=jdbc, the " + engine + " engine is not sharded");
+        }
+        if (backfill) {
+            throw new IllegalStateException("runnerz.rollup.backfill needs runnerz.storage.engine=jdbc, the " + engine + " engine does not maintain rollups");
+        }
+    }
+}
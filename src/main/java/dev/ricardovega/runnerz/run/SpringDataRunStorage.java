@@ -0,0 +1,90 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Storage engine on top of the Spring Data RunRepository, selected with runnerz.storage.engine=spring-data.
+// Uses the primary datasource only: runs are not sharded and rollups are not maintained.
+@Component
+@Primary // Replaces the default JDBC engine when selected
+@ConditionalOnProperty(prefix = "runnerz.storage", name = "engine", havingValue = "spring-data")
+public class SpringDataRunStorage implements RunStorage {
+
+    private static final Comparator<Run> BY_ID = Comparator.comparing(Run::id);
+
+    private final RunRepository runRepository;
+
+    // Constructor to inject the RunRepository dependency
+    public SpringDataRunStorage(RunRepository runRepository) {
+        this.runRepository = runRepository;
+    }
+
+    @Override
+    public List<Run> findAll() {
+        return runRepository.findAll().stream().sorted(BY_ID).toList(); // Spring Data does not guarantee an order
+    }
+
+    @Override
+    public Optional<Run> findById(Integer id) {
+        return runRepository.findById(id);
+    }
+
+    @Override
+    public List<Run> findAllById(Collection<Integer> ids) {
+        return runRepository.findAllById(ids);
+    }
+
+    @Override
+    public List<Run> findByLocation(String location) {
+        return runRepository.findAllByLocation(location).stream().sorted(BY_ID).toList();
+    }
+
+    // A null version makes Spring Data insert, also when the id was supplied; RunIdAllocator fills in missing ids
+    @Override
+    public Run create(Run run) {
+        return runRepository.save(new Run(run.id(), run.title(), run.startedOn(), run.completedOn(), run.miles(), run.location(), null));
+    }
+
+    // Updates with the stored version, so concurrent updates fail instead of overwriting each other
+    @Override
+    @Transactional
+    public void update(Run run, Integer id) {
+        Run existing = runRepository.findById(id).orElseThrow(RunNotFoundException::new);
+        runRepository.save(new Run(id, run.title(), run.startedOn(), run.completedOn(), run.miles(), run.location(), existing.version()));
+    }
+
+    @Override
+    @Transactional
+    public void delete(Integer id) {
+        if (!runRepository.existsById(id)) {
+            throw new RunNotFoundException();
+        }
+        runRepository.deleteById(id);
+    }
+
+    @Override
+    public int count() {
+        return (int) runRepository.count();
+    }
+
+    // One transaction per chunk
+    @Override
+    @Transactional
+    public int deleteStartedBefore(LocalDateTime before, Location location, int limit) {
+        return RunStorage.super.deleteStartedBefore(before, location, limit);
+    }
+
+    @Override
+    @Transactional
+    public void saveAll(List<Run> runs) {
+        runs.forEach(this::create);
+    }
+}
@@ -0,0 +1,137 @@
+package dev.ricardovega.runnerz.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Appends finished spans to a file as JSON lines, one span per line, with OTLP span field names
+// so the file can be fed to a collector's file receiver. Writing happens on a background thread;
+// when it falls behind, spans are dropped instead of slowing down requests.
+// Once the file reaches maxFileSize it is rotated like a log file: spans.jsonl becomes spans.jsonl.1,
+// spans.jsonl.1 becomes spans.jsonl.2 and so on, and the oldest beyond maxFiles rotated files is deleted.
+public class FileSpanExporter implements SpanExporter, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSpanExporter.class);
+    private static final int QUEUE_SIZE = 10_000;
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Map<String, Object>> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public FileSpanExporter(Path file, long maxFileSize, int maxFiles) {
+        if (maxFileSize <= 0 || maxFiles < 1) {
+            throw new IllegalArgumentException("Need a positive file size and at least one rotated file, got " + maxFileSize + " bytes and " + maxFiles + " files");
+        }
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.writer = Thread.ofVirtual().name("span-exporter").start(this::write);
+    }
+
+    @Override
+    public void export(Span span) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("traceId", span.traceId());
+        line.put("spanId", span.spanId());
+        line.put("parentSpanId", span.parentSpanId());
+        line.put("name", span.name());
+        line.put("kind", span.kind());
+        line.put("startTimeUnixNano", span.startEpochNanos());
+        line.put("endTimeUnixNano", span.startEpochNanos() + span.durationNanos());
+        line.put("attributes", span.attributes());
+        line.put("status", span.errorMessage() == null ? Map.of("code", "OK") : Map.of("code", "ERROR", "message", span.errorMessage()));
+        if (!queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private void write() {
+        OutputStream out = null;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            out = open();
+            long size = Files.size(file);
+            while (running || !queue.isEmpty()) {
+                Map<String, Object> line = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    out.flush(); // Nothing waiting, make what was written visible
+                    continue;
+                }
+                byte[] bytes = objectMapper.writeValueAsBytes(line);
+                if (size > 0 && size + bytes.length + 1 > maxFileSize) {
+                    out.close();
+                    rotate();
+                    out = open();
+                    size = 0;
+                }
+                out.write(bytes);
+                out.write(NEWLINE);
+                size += bytes.length + 1;
+            }
+        } catch (IOException e) {
+            log.error("Could not write spans to {}", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    log.error("Could not close {}", file, e);
+                }
+            }
+        }
+    }
+
+    private OutputStream open() throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    // Shift spans.jsonl.N to spans.jsonl.N+1, dropping the oldest, then move the current file to spans.jsonl.1
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    // Write the spans still queued and stop
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
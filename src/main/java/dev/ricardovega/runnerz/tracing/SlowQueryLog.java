@@ -0,0 +1,48 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Logs SQL statements that take longer than a threshold, including the time to read their results.
+// Statements are normalized (literals and IN lists collapsed) so the same query always logs the same text,
+// and only the types of the bind parameters are logged, never their values.
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger("runnerz.slow-query");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final Duration threshold;
+
+    public SlowQueryLog(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= threshold.toNanos();
+    }
+
+    public void record(String dataSource, String sql, List<String> parameterTypes, long rows, long durationNanos) {
+        if (isSlow(durationNanos)) {
+            log.warn("{} ms, {} rows on {}: {} {}", durationNanos / 1_000_000, rows, dataSource, normalize(sql), parameterTypes);
+        }
+    }
+
+    // SELECT * FROM run WHERE id IN (?, ?, ?) AND miles > 5  ->  SELECT * FROM run WHERE id IN (?...) AND miles > ?
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+    }
+}
@@ -0,0 +1,20 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// The slow-query log for statements slower than runnerz.slow-query.threshold, whether or not tracing is enabled.
+// The DataSources are wrapped in TracingDataSources either way; their JDBC spans only record under a traced request.
+@Configuration
+public class SlowQueryLogConfig {
+
+    // Static, so the post processor is created before the DataSources it wraps
+    @Bean
+    static TracingDataSourcePostProcessor tracingDataSourcePostProcessor(
+            @Value("${runnerz.slow-query.threshold:200ms}") Duration slowQueryThreshold) {
+        return new TracingDataSourcePostProcessor(slowQueryThreshold);
+    }
+}
@@ -0,0 +1,174 @@
+package dev.ricardovega.runnerz.tracing;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+// One timed operation of a traced request: the request itself, a controller or repository method,
+// a JDBC statement or an outbound HTTP call. Like Deadline, the current span is bound to the thread;
+// a new span becomes the child of the current one and is current itself until it is closed.
+// Spans are only recorded below a root span started by TracingFilter; elsewhere start() returns a no-op span.
+public final class Span implements AutoCloseable {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Span NOOP = new Span(null, null, null, null, "noop", "INTERNAL", null);
+
+    private final SpanExporter exporter;
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String kind;
+    private final Span previous; // Span that was current on this thread before this one
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private String name;
+    private long durationNanos = -1;
+    private String error;
+
+    private Span(SpanExporter exporter, String traceId, String spanId, String parentSpanId, String name, String kind, Span previous) {
+        this.exporter = exporter;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.previous = previous;
+        Instant now = Instant.now();
+        this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.startNanos = System.nanoTime();
+    }
+
+    // Start the root span of a request; traceId and parentSpanId come from an incoming traceparent header, if any
+    public static Span root(SpanExporter exporter, String name, String traceId, String parentSpanId) {
+        String trace = traceId != null ? traceId : HEX.toHexDigits(ThreadLocalRandom.current().nextLong())
+                + HEX.toHexDigits(ThreadLocalRandom.current().nextLong());
+        Span span = new Span(exporter, trace, newSpanId(), parentSpanId, name, "SERVER", CURRENT.get());
+        CURRENT.set(span);
+        return span;
+    }
+
+    // Start a child of the current span, or a no-op span when this thread is not traced
+    public static Span start(String name, String kind) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return NOOP;
+        }
+        Span span = new Span(parent.exporter, parent.traceId, newSpanId(), parent.spanId, name, kind, parent);
+        CURRENT.set(span);
+        return span;
+    }
+
+    // Span of the traced work on this thread, or null when there is none
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    // Run a task on another thread as part of the current span, e.g. one shard query of a scatter-gather
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Span span = current();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(span);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public boolean isRecording() {
+        return exporter != null;
+    }
+
+    public Span name(String name) {
+        if (isRecording()) {
+            this.name = name;
+        }
+        return this;
+    }
+
+    public Span attribute(String key, Object value) {
+        if (isRecording() && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span error(Throwable throwable) {
+        if (isRecording()) {
+            error = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+        }
+        return this;
+    }
+
+    // W3C trace context header value for outbound calls made within this span
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    // End the span on the thread that started it; the previous span becomes current again
+    @Override
+    public void close() {
+        if (!isRecording() || durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+        exporter.export(this);
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+
+    public String parentSpanId() {
+        return parentSpanId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String kind() {
+        return kind;
+    }
+
+    public long startEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    public Map<String, Object> attributes() {
+        return attributes;
+    }
+
+    public String errorMessage() {
+        return error;
+    }
+
+    private static String newSpanId() {
+        return HEX.toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+}
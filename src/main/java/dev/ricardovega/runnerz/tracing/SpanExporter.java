@@ -0,0 +1,7 @@
+package dev.ricardovega.runnerz.tracing;
+
+// Receives every span when it ends. Called on the request path, so implementations must not block.
+public interface SpanExporter {
+
+    void export(Span span);
+}
@@ -0,0 +1,33 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+// Records a span per outbound RestClient call and passes the trace on in the traceparent header
+public class TracingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Span span = Span.start("HTTP " + request.getMethod() + " " + request.getURI().getHost(), "CLIENT");
+        if (!span.isRecording()) {
+            return execution.execute(request, body);
+        }
+
+        span.attribute("http.method", request.getMethod().name()).attribute("http.url", request.getURI().toString());
+        request.getHeaders().set(TracingFilter.TRACEPARENT_HEADER, span.traceparent());
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            span.attribute("http.status_code", response.getStatusCode().value());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.close();
+        }
+    }
+}
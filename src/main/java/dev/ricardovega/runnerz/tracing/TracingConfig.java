@@ -0,0 +1,46 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+// Spans for controller -> repository -> JDBC statement -> RestClient, written to runnerz.tracing.file.
+// The JDBC statement spans come from the DataSources wrapped by SlowQueryLogConfig.
+@Configuration
+@ConditionalOnProperty(prefix = "runnerz.tracing", name = "enabled", havingValue = "true")
+public class TracingConfig {
+
+    @Bean(destroyMethod = "close")
+    FileSpanExporter fileSpanExporter(@Value("${runnerz.tracing.file:traces/spans.jsonl}") Path file,
+                                      @Value("${runnerz.tracing.max-file-size:10MB}") DataSize maxFileSize,
+                                      @Value("${runnerz.tracing.max-files:5}") int maxFiles) {
+        return new FileSpanExporter(file, maxFileSize.toBytes(), maxFiles);
+    }
+
+    @Bean
+    FilterRegistrationBean<TracingFilter> tracingFilter(SpanExporter exporter,
+                                                        @Value("${runnerz.tracing.sample-ratio:0.1}") double sampleRatio) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(exporter, sampleRatio));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1); // Around every other filter but the warm-up marker
+        return registration;
+    }
+
+    @Bean
+    RestClientCustomizer tracingRestClientCustomizer() {
+        return builder -> builder.requestInterceptor(new TracingClientHttpRequestInterceptor());
+    }
+
+    // Static, so the post processor is created before the beans it wraps
+    @Bean
+    static TracingRepositoryPostProcessor tracingRepositoryPostProcessor() {
+        return new TracingRepositoryPostProcessor();
+    }
+}
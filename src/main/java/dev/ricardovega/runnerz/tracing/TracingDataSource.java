@@ -0,0 +1,178 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// DataSource that records a span per JDBC statement and feeds the slow-query log.
+// A statement is timed from execute until its result set is closed, so the time spent reading rows counts too.
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final SlowQueryLog slowQueryLog;
+
+    public TracingDataSource(String name, DataSource dataSource, SlowQueryLog slowQueryLog) {
+        super(dataSource);
+        this.name = name;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return traced(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return traced(super.getConnection(username, password));
+    }
+
+    private Connection traced(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                Class<? extends Statement> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return proxy(type, statement, new TracedStatement(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    // Bind parameters and the execution in progress of one statement
+    private final class TracedStatement implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final Map<Integer, String> parameterTypes = new TreeMap<>();
+        private Execution execution;
+
+        private TracedStatement(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if (methodName.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameterTypes.put(index, methodName.equals("setNull") || args[1] == null ? "null" : args[1].getClass().getSimpleName());
+            } else if (methodName.equals("clearParameters")) {
+                parameterTypes.clear();
+            } else if (methodName.startsWith("execute")) {
+                return execute(method, args);
+            } else if (methodName.equals("close")) {
+                finish(-1); // Result set left open, end the statement anyway
+            }
+            return TracingDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish(-1);
+            String sql = preparedSql != null ? preparedSql : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            execution = new Execution(sql, new ArrayList<>(parameterTypes.values()));
+            Object result;
+            try {
+                result = TracingDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                execution.span.error(e);
+                finish(-1);
+                throw e;
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                Execution current = execution;
+                long[] rows = new long[1];
+                return proxy(ResultSet.class, resultSet, (proxy, rsMethod, rsArgs) -> {
+                    Object value = TracingDataSource.invoke(resultSet, rsMethod, rsArgs);
+                    if (rsMethod.getName().equals("next") && Boolean.TRUE.equals(value)) {
+                        rows[0]++;
+                    } else if (rsMethod.getName().equals("close") && execution == current) {
+                        finish(rows[0]);
+                    }
+                    return value;
+                });
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                finish(((Number) result).longValue());
+            } else if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                finish(total);
+            } else {
+                finish(-1);
+            }
+            return result;
+        }
+
+        private void finish(long rows) {
+            if (execution == null) {
+                return;
+            }
+            long durationNanos = System.nanoTime() - execution.startNanos;
+            if (execution.span.isRecording()) {
+                execution.span.attribute("db.statement", SlowQueryLog.normalize(execution.sql))
+                        .attribute("db.parameters", execution.parameterTypes.toString())
+                        .attribute("db.rows", rows >= 0 ? rows : null);
+            }
+            execution.span.close();
+            slowQueryLog.record(name, execution.sql, execution.parameterTypes, rows, durationNanos);
+            execution = null;
+        }
+    }
+
+    private final class Execution {
+
+        private final String sql;
+        private final List<String> parameterTypes;
+        private final long startNanos = System.nanoTime();
+        private final Span span;
+
+        private Execution(String sql, List<String> parameterTypes) {
+            this.sql = sql;
+            this.parameterTypes = parameterTypes;
+            this.span = Span.start("jdbc " + firstWord(sql), "CLIENT").attribute("db.name", name);
+        }
+    }
+
+    private static String firstWord(String sql) {
+        if (sql == null) {
+            return "statement";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "statement" : trimmed.substring(0, end).toUpperCase();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause(); // Keep SQLExceptions as the driver threw them
+        }
+    }
+
+    private static Object proxy(Class<?> type, Object target, InvocationHandler handler) {
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,28 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Wraps every DataSource bean in a TracingDataSource; DataSources created outside the context can use wrap()
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public TracingDataSourcePostProcessor(Duration slowQueryThreshold) {
+        this.slowQueryLog = new SlowQueryLog(slowQueryThreshold);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return wrap(beanName, dataSource);
+        }
+        return bean;
+    }
+
+    public DataSource wrap(String name, DataSource dataSource) {
+        return new TracingDataSource(name, dataSource, slowQueryLog);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.ricardovega.runnerz.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import dev.ricardovega.runnerz.warmup.WarmupRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Starts the root span of a sampled request. It wraps the whole dispatch, so the time spent writing
+// the response body is part of the request span. An incoming W3C traceparent header continues that trace.
+// Requests the warm-up sends to its own port are never traced.
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+
+    private final SpanExporter exporter;
+    private final double sampleRatio;
+
+    public TracingFilter(SpanExporter exporter, double sampleRatio) {
+        this.exporter = exporter;
+        this.sampleRatio = sampleRatio;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (WarmupRequest.isCurrent()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String traceparent = request.getHeader(TRACEPARENT_HEADER);
+        Matcher incoming = traceparent != null ? TRACEPARENT.matcher(traceparent) : null;
+        boolean continued = incoming != null && incoming.matches();
+        if (!continued && ThreadLocalRandom.current().nextDouble() >= sampleRatio) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Span span = Span.root(exporter, request.getMethod() + " " + request.getRequestURI(),
+                continued ? incoming.group(1) : null, continued ? incoming.group(2) : null);
+        span.attribute("http.method", request.getMethod()).attribute("http.target", request.getRequestURI());
+        response.setHeader(TRACE_ID_HEADER, span.traceId()); // Lets callers look the request up in the span file
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                span.name(request.getMethod() + " " + route).attribute("http.route", route);
+            }
+            span.attribute("http.status_code", response.getStatus()).close();
+        }
+    }
+}
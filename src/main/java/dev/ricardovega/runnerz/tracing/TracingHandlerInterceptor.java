@@ -0,0 +1,46 @@
+package dev.ricardovega.runnerz.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+// Records a span for the controller method handling a traced request. The span ends before the response body
+// is written, so the "json write" span is its sibling and not part of it: for @ResponseBody methods the body is
+// written before postHandle, so TracingJackson2HttpMessageConverter ends the span first; otherwise postHandle does.
+// When the method throws, postHandle is skipped and the span ends with the error in afterCompletion.
+public class TracingHandlerInterceptor implements HandlerInterceptor {
+
+    private static final String SPAN_ATTRIBUTE = TracingHandlerInterceptor.class.getName() + ".span";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && Span.current() != null) {
+            Span span = Span.start(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName(), "INTERNAL");
+            request.setAttribute(SPAN_ATTRIBUTE, span);
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        end(request, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        end(request, ex); // Only still open when the handler threw
+    }
+
+    // End the controller span of the request, if it is still open
+    static void end(HttpServletRequest request, Exception ex) {
+        if (request.getAttribute(SPAN_ATTRIBUTE) instanceof Span span) {
+            request.removeAttribute(SPAN_ATTRIBUTE);
+            if (ex != null) {
+                span.error(ex);
+            }
+            span.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.ricardovega.runnerz.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Jackson converter that records the time spent writing JSON response bodies as its own span,
+// next to the controller span rather than inside it
+public class TracingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TracingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            TracingHandlerInterceptor.end(attributes.getRequest(), null); // The controller method has returned
+        }
+        try (Span span = Span.start("json write", "INTERNAL")) {
+            span.attribute("json.type", object.getClass().getSimpleName());
+            super.writeInternal(object, type, outputMessage);
+        }
+    }
+}
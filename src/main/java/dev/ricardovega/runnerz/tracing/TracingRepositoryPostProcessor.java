@@ -0,0 +1,34 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ClassUtils;
+
+// Records a span for every public method call on a @Repository bean, the same way Spring adds
+// exception translation to repositories: by adding an advisor to the bean's proxy.
+// The proxy subclasses the repository class, so beans that inject a concrete repository type still get one.
+public class TracingRepositoryPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public TracingRepositoryPostProcessor() {
+        MethodInterceptor interceptor = invocation -> {
+            if (Span.current() == null) {
+                return invocation.proceed();
+            }
+            String name = ClassUtils.getUserClass(invocation.getThis()).getSimpleName() + "." + invocation.getMethod().getName();
+            try (Span span = Span.start(name, "INTERNAL")) {
+                try {
+                    return invocation.proceed();
+                } catch (Throwable e) {
+                    span.error(e);
+                    throw e;
+                }
+            }
+        };
+        this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Repository.class, true), interceptor);
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+}
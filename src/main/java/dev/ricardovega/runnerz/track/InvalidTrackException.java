@@ -0,0 +1,16 @@
+package dev.ricardovega.runnerz.track;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidTrackException extends RuntimeException {
+
+    public InvalidTrackException(String message) {
+        super(message);
+    }
+
+    public InvalidTrackException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
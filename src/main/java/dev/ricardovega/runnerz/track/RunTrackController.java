@@ -0,0 +1,51 @@
+package dev.ricardovega.runnerz.track;
+
+import dev.ricardovega.runnerz.run.RunNotFoundException;
+import dev.ricardovega.runnerz.run.RunStorage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/runs/{id}/track") // GPS track of a single run
+@ConditionalOnProperty(prefix = "runnerz.storage", name = "engine", havingValue = "jdbc", matchIfMissing = true) // Tracks are stored next to the jdbc engine's runs
+public class RunTrackController {
+
+    private final RunStorage runStorage;
+    private final RunTrackRepository trackRepository;
+    private final TrackIngestor trackIngestor;
+
+    public RunTrackController(RunStorage runStorage, RunTrackRepository trackRepository, TrackIngestor trackIngestor) {
+        this.runStorage = runStorage;
+        this.trackRepository = trackRepository;
+        this.trackIngestor = trackIngestor;
+    }
+
+    // Upload the track of a run; the body is read as a stream and summarized on the way in
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE)
+    TrackSummary upload(@PathVariable Integer id, InputStream body) throws IOException {
+        if (runStorage.findById(id).isEmpty()) {
+            throw new RunNotFoundException();
+        }
+        TrackIngestor.IngestedTrack track = trackIngestor.ingest(body);
+        trackRepository.save(id, track);
+        return track.summary();
+    }
+
+    // Distance, duration and mile splits computed at upload time
+    @GetMapping("/summary")
+    TrackSummary findSummary(@PathVariable Integer id) {
+        return trackRepository.findSummary(id).orElseThrow(RunNotFoundException::new);
+    }
+
+    // The points of the track, decoded only here and while the response is written
+    @GetMapping("")
+    Iterable<TrackPoint> findPoints(@PathVariable Integer id) {
+        return TrackCodec.decode(trackRepository.findPoints(id).orElseThrow(RunNotFoundException::new));
+    }
+}
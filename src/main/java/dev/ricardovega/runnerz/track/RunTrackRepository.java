@@ -0,0 +1,61 @@
+package dev.ricardovega.runnerz.track;
+
+import dev.ricardovega.runnerz.run.RunNotFoundException;
+import dev.ricardovega.runnerz.run.RunShards;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+// Stores encoded tracks next to their run, on the shard that owns the run id.
+// run_track has no foreign key to run (see schema.sql); JdbcClientRunRepository (deletes and purges) and RunArchiver
+// delete the tracks of the runs they remove.
+@Repository
+public class RunTrackRepository {
+
+    private final RunShards shards;
+
+    public RunTrackRepository(RunShards shards) {
+        this.shards = shards;
+    }
+
+    // Store the track of a run, replacing any earlier upload
+    // The run row is locked first, so a run deleted concurrently cannot leave its track behind
+    public void save(int runId, TrackIngestor.IngestedTrack track) {
+        RunShards.Shard shard = shards.forId(runId);
+        TrackSummary summary = track.summary();
+        shard.transactionTemplate().executeWithoutResult(status -> {
+            shard.jdbcClient().sql("SELECT id FROM run WHERE id = :runId FOR UPDATE")
+                    .param("runId", runId)
+                    .query(Integer.class)
+                    .optional()
+                    .orElseThrow(RunNotFoundException::new);
+            shard.jdbcClient().sql("DELETE FROM run_track WHERE run_id = :runId")
+                    .param("runId", runId)
+                    .update();
+            shard.jdbcClient().sql("INSERT INTO run_track(run_id, point_count, distance_meters, duration_seconds, split_seconds, points) VALUES(?,?,?,?,?,?)")
+                    .params(runId, summary.pointCount(), summary.distanceMeters(), summary.durationSeconds(),
+                            TrackCodec.encodeInts(summary.splitSeconds()), track.points())
+                    .update();
+        });
+    }
+
+    // Summary of a run's track, without reading the encoded points
+    public Optional<TrackSummary> findSummary(int runId) {
+        return shards.forId(runId).jdbcClient().sql("SELECT point_count, distance_meters, duration_seconds, split_seconds FROM run_track WHERE run_id = :runId")
+                .param("runId", runId)
+                .query((rs, rowNum) -> new TrackSummary(
+                        rs.getInt("point_count"),
+                        rs.getDouble("distance_meters"),
+                        rs.getLong("duration_seconds"),
+                        TrackCodec.decodeInts(rs.getBytes("split_seconds"))))
+                .optional();
+    }
+
+    // Encoded points of a run's track
+    public Optional<byte[]> findPoints(int runId) {
+        return shards.forId(runId).jdbcClient().sql("SELECT points FROM run_track WHERE run_id = :runId")
+                .param("runId", runId)
+                .query((rs, rowNum) -> rs.getBytes("points"))
+                .optional();
+    }
+}
@@ -0,0 +1,131 @@
+package dev.ricardovega.runnerz.track;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Compact binary encoding of GPS tracks.
+// Coordinates are stored as micro-degrees (about 0.1 m) and time as epoch seconds. Every value is written as
+// the zigzag varint of its difference to the previous point, so consecutive 1 Hz points take 3-4 bytes
+// instead of the 24 bytes of three raw doubles/longs.
+public final class TrackCodec {
+
+    private static final double SCALE = 1_000_000;
+
+    private TrackCodec() {
+    }
+
+    // Decode a track point by point while it is being iterated, without building a list
+    public static Iterable<TrackPoint> decode(byte[] bytes) {
+        return () -> new Iterator<>() {
+            private final Reader reader = new Reader(bytes);
+            private long lat;
+            private long lng;
+            private long time;
+
+            @Override
+            public boolean hasNext() {
+                return reader.hasMore();
+            }
+
+            @Override
+            public TrackPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lat += reader.readSigned();
+                lng += reader.readSigned();
+                time += reader.readSigned();
+                return new TrackPoint(lat / SCALE, lng / SCALE, Instant.ofEpochSecond(time));
+            }
+        };
+    }
+
+    // Encode a list of small non-negative ints, e.g. split times
+    public static byte[] encodeInts(List<Integer> values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(values.size() * 2);
+        values.forEach(value -> writeVarLong(out, value));
+        return out.toByteArray();
+    }
+
+    public static List<Integer> decodeInts(byte[] bytes) {
+        List<Integer> values = new ArrayList<>();
+        Reader reader = new Reader(bytes);
+        while (reader.hasMore()) {
+            values.add((int) reader.readUnsigned());
+        }
+        return values;
+    }
+
+    // Collects points one at a time into the encoded form
+    public static class Encoder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long lat;
+        private long lng;
+        private long time;
+
+        public void add(TrackPoint point) {
+            long pointLat = Math.round(point.lat() * SCALE);
+            long pointLng = Math.round(point.lng() * SCALE);
+            long pointTime = point.time().getEpochSecond();
+            writeVarLong(out, zigzag(pointLat - lat));
+            writeVarLong(out, zigzag(pointLng - lng));
+            writeVarLong(out, zigzag(pointTime - time));
+            lat = pointLat;
+            lng = pointLng;
+            time = pointTime;
+        }
+
+        public byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    // Map signed values to unsigned ones so small negative deltas stay small: 0, -1, 1, -2 -> 0, 1, 2, 3
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80)); // Low 7 bits with the continuation bit set
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasMore() {
+            return position < bytes.length;
+        }
+
+        long readUnsigned() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readSigned() {
+            long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.ricardovega.runnerz.track;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+// Reads an uploaded track and encodes and summarizes it in the same streaming pass.
+// Expects a JSON array of {"lat": .., "lng": .., "time": "2024-02-20T06:05:00Z"} objects;
+// points are never collected into a list, so large tracks use constant memory apart from the encoded bytes.
+// Anything else, including malformed JSON and content after the array, is an InvalidTrackException (400).
+@Component
+public class TrackIngestor {
+
+    private final ObjectMapper objectMapper;
+
+    public TrackIngestor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public IngestedTrack ingest(InputStream body) throws IOException {
+        TrackCodec.Encoder encoder = new TrackCodec.Encoder();
+        TrackSummaryCalculator calculator = new TrackSummaryCalculator();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidTrackException("Track must be a JSON array of points");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                TrackPoint point = readPoint(parser);
+                encoder.add(point);
+                calculator.add(point);
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new InvalidTrackException("Track must be a JSON array of points");
+            }
+            if (parser.nextToken() != null) {
+                throw new InvalidTrackException("Unexpected content after the track");
+            }
+        } catch (StreamReadException e) {
+            // Malformed JSON is the client's fault; other IOExceptions (e.g. a broken connection) are passed on
+            throw new InvalidTrackException("Malformed track: " + e.getOriginalMessage(), e);
+        }
+
+        TrackSummary summary = calculator.summary();
+        if (summary.pointCount() < 2) {
+            throw new InvalidTrackException("Track must contain at least two points");
+        }
+        return new IngestedTrack(summary, encoder.toByteArray());
+    }
+
+    private static TrackPoint readPoint(JsonParser parser) throws IOException {
+        Double lat = null;
+        Double lng = null;
+        Instant time = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "lat" -> lat = readCoordinate(parser, field);
+                case "lng" -> lng = readCoordinate(parser, field);
+                case "time" -> time = parseTime(parser.getText());
+                default -> parser.skipChildren(); // Ignore extra fields such as elevation
+            }
+        }
+        if (lat == null || lng == null || time == null) {
+            throw new InvalidTrackException("Every track point needs lat, lng and time");
+        }
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new InvalidTrackException("Track point out of range: " + lat + ", " + lng);
+        }
+        return new TrackPoint(lat, lng, time);
+    }
+
+    private static double readCoordinate(JsonParser parser, String field) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            throw new InvalidTrackException("Track point " + field + " must be a number");
+        }
+        return parser.getDoubleValue();
+    }
+
+    private static Instant parseTime(String text) {
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new InvalidTrackException("Invalid track point time: " + text);
+        }
+    }
+
+    public record IngestedTrack(TrackSummary summary, byte[] points) {
+    }
+}
@@ -0,0 +1,10 @@
+package dev.ricardovega.runnerz.track;
+
+import java.time.Instant;
+
+public record TrackPoint(
+        double lat, // Latitude in degrees
+        double lng, // Longitude in degrees
+        Instant time // When the point was recorded, stored with second precision
+) {
+}
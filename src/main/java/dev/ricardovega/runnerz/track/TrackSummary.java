@@ -0,0 +1,26 @@
+package dev.ricardovega.runnerz.track;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record TrackSummary(
+        @JsonProperty("point_count") int pointCount, // Number of GPS points in the track
+        @JsonProperty("distance_meters") double distanceMeters, // Distance along the track
+        @JsonProperty("duration_seconds") long durationSeconds, // Time between the first and the last point
+        @JsonProperty("split_seconds") List<Integer> splitSeconds // Time taken for each completed mile
+) {
+
+    static final double METERS_PER_MILE = 1609.344;
+
+    @JsonProperty("miles")
+    public double miles() {
+        return distanceMeters / METERS_PER_MILE;
+    }
+
+    // Average pace over the whole track, 0 when no distance was covered
+    @JsonProperty("pace_seconds_per_mile")
+    public double paceSecondsPerMile() {
+        return distanceMeters == 0 ? 0 : durationSeconds / miles();
+    }
+}
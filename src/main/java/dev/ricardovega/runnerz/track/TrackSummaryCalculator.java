@@ -0,0 +1,61 @@
+package dev.ricardovega.runnerz.track;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Computes a TrackSummary in a single pass over the points, keeping only the previous point in memory
+public class TrackSummaryCalculator {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final List<Integer> splitSeconds = new ArrayList<>();
+    private TrackPoint first;
+    private TrackPoint previous;
+    private int pointCount;
+    private double distanceMeters;
+    private double nextSplitMeters = TrackSummary.METERS_PER_MILE; // Distance at which the current mile ends
+    private double lastSplitSeconds; // Seconds since the first point at which the previous mile ended
+
+    public void add(TrackPoint point) {
+        if (previous == null) {
+            first = point;
+        } else {
+            if (point.time().isBefore(previous.time())) {
+                throw new InvalidTrackException("Track points must be ordered by time");
+            }
+            double step = distance(previous, point);
+            double previousSeconds = secondsSinceStart(previous);
+            double stepSeconds = secondsSinceStart(point) - previousSeconds;
+            // A step can complete one or more miles; interpolate the time at which each one was reached
+            while (step > 0 && distanceMeters + step >= nextSplitMeters) {
+                double splitAt = previousSeconds + (nextSplitMeters - distanceMeters) / step * stepSeconds;
+                splitSeconds.add((int) Math.round(splitAt - lastSplitSeconds));
+                lastSplitSeconds = splitAt;
+                nextSplitMeters += TrackSummary.METERS_PER_MILE;
+            }
+            distanceMeters += step;
+        }
+        previous = point;
+        pointCount++;
+    }
+
+    public TrackSummary summary() {
+        long duration = first == null ? 0 : previous.time().getEpochSecond() - first.time().getEpochSecond();
+        return new TrackSummary(pointCount, distanceMeters, duration, List.copyOf(splitSeconds));
+    }
+
+    private double secondsSinceStart(TrackPoint point) {
+        return point.time().getEpochSecond() - first.time().getEpochSecond();
+    }
+
+    // Great-circle distance between two points (haversine formula)
+    static double distance(TrackPoint a, TrackPoint b) {
+        double lat1 = Math.toRadians(a.lat());
+        double lat2 = Math.toRadians(b.lat());
+        double dLat = lat2 - lat1;
+        double dLng = Math.toRadians(b.lng() - a.lng());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(h));
+    }
+}
@@ -0,0 +1,96 @@
+package dev.ricardovega.runnerz.user;
+
+import dev.ricardovega.runnerz.deadline.Deadline;
+import dev.ricardovega.runnerz.tracing.Span;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs idempotent calls with an optional hedge: when the first attempt has not answered after the
+// observed p95 latency, a second attempt is sent and whichever succeeds first wins. The other one is cancelled.
+// Closing it cancels the attempts still running; calls after that fail.
+public class HedgedExecutor implements AutoCloseable {
+
+    private static final int WINDOW_SIZE = 128; // Latest successful call latencies kept for the p95
+    private static final int MIN_SAMPLES = 20; // Below this the p95 is not trusted and minDelay is used
+
+    private final boolean enabled;
+    private final Duration minDelay;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int samples;
+
+    public HedgedExecutor(boolean enabled, Duration minDelay) {
+        this.enabled = enabled;
+        this.minDelay = minDelay;
+    }
+
+    public <T> T call(Supplier<T> request) {
+        if (!enabled) {
+            return timed(request);
+        }
+
+        CompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(2);
+        futures.add(attempts.submit(Span.propagate(Deadline.propagate(() -> timed(request)))));
+        try {
+            Future<T> done = attempts.poll(hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                futures.add(attempts.submit(Span.propagate(Deadline.propagate(() -> timed(request))))); // Slower than p95, hedge
+                done = attempts.take();
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                if (futures.size() == 1) {
+                    throw e;
+                }
+                return attempts.take().get(); // One attempt failed, the other may still succeed
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for user service", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Delay before the hedge goes out: the p95 of recent calls, but never less than minDelay
+    public synchronized Duration hedgeDelay() {
+        if (samples < MIN_SAMPLES) {
+            return minDelay;
+        }
+        long[] sorted = Arrays.copyOf(latencies, Math.min(samples, WINDOW_SIZE));
+        Arrays.sort(sorted);
+        Duration p95 = Duration.ofNanos(sorted[(int) Math.ceil(sorted.length * 0.95) - 1]);
+        return p95.compareTo(minDelay) > 0 ? p95 : minDelay;
+    }
+
+    private <T> T timed(Supplier<T> request) {
+        long start = System.nanoTime();
+        T result = request.get();
+        record(System.nanoTime() - start);
+        return result;
+    }
+
+    private synchronized void record(long nanos) {
+        latencies[samples++ % WINDOW_SIZE] = nanos;
+    }
+}
@@ -0,0 +1,110 @@
+package dev.ricardovega.runnerz.user;
+
+import dev.ricardovega.runnerz.deadline.Deadline;
+import dev.ricardovega.runnerz.deadline.DeadlineExceededException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// UserRestClient behind a circuit breaker and hedged requests, with the last good answers as fallback.
+// Callers that can live with slightly stale users should use this instead of calling UserRestClient directly,
+// as UserController does. Only failures of the service count towards opening the breaker: client errors and
+// calls cut short by the caller's own deadline (X-Request-Timeout) do not.
+@Component
+public class ResilientUserClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientUserClient.class);
+
+    private final UserRestClient userRestClient;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgedExecutor hedgedExecutor;
+    private final boolean fallbackEnabled;
+
+    private volatile List<User> lastUsers; // Last successful findAll
+    private final Map<Integer, User> lastUsersById = new ConcurrentHashMap<>(); // Last successful answer per user
+
+    @Autowired
+    public ResilientUserClient(UserRestClient userRestClient,
+                               @Value("${runnerz.users.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${runnerz.users.circuit-breaker.open-duration:30s}") Duration openDuration,
+                               @Value("${runnerz.users.hedging.enabled:true}") boolean hedgingEnabled,
+                               @Value("${runnerz.users.hedging.min-delay:50ms}") Duration hedgingMinDelay,
+                               @Value("${runnerz.users.fallback.enabled:true}") boolean fallbackEnabled) {
+        this(userRestClient,
+                new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC()),
+                new HedgedExecutor(hedgingEnabled, hedgingMinDelay),
+                fallbackEnabled);
+    }
+
+    public ResilientUserClient(UserRestClient userRestClient, CircuitBreaker circuitBreaker,
+                               HedgedExecutor hedgedExecutor, boolean fallbackEnabled) {
+        this.userRestClient = userRestClient;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgedExecutor = hedgedExecutor;
+        this.fallbackEnabled = fallbackEnabled;
+    }
+
+    public List<User> findAll() {
+        return call(userRestClient::findAll, () -> lastUsers, users -> {
+            lastUsers = users;
+            users.forEach(user -> lastUsersById.put(user.id(), user));
+        });
+    }
+
+    public User findById(Integer id) {
+        return call(() -> userRestClient.findById(id), () -> lastUsersById.get(id), user -> lastUsersById.put(id, user));
+    }
+
+    // Stop the hedged attempts still in flight when the context closes
+    @PreDestroy
+    void shutdown() {
+        hedgedExecutor.close();
+    }
+
+    private <T> T call(Supplier<T> request, Supplier<T> lastKnownGood, Consumer<T> remember) {
+        if (!circuitBreaker.tryAcquire()) {
+            return fallback(lastKnownGood, null); // Circuit open, do not wait on a service that is known to fail
+        }
+
+        T result;
+        try {
+            result = hedgedExecutor.call(request);
+        } catch (HttpClientErrorException | DeadlineExceededException e) {
+            circuitBreaker.release(); // 4xx and our own deadline say nothing about the health of the service
+            throw e;
+        } catch (RuntimeException e) {
+            Deadline deadline = Deadline.current();
+            if (deadline != null && deadline.isExpired()) {
+                // The read timeout is capped at the caller's deadline, so this is the caller running out of time
+                circuitBreaker.release();
+                throw new DeadlineExceededException();
+            }
+            circuitBreaker.onFailure();
+            return fallback(lastKnownGood, e);
+        }
+        circuitBreaker.onSuccess();
+        remember.accept(result);
+        return result;
+    }
+
+    private <T> T fallback(Supplier<T> lastKnownGood, RuntimeException cause) {
+        T value = fallbackEnabled ? lastKnownGood.get() : null;
+        if (value == null) {
+            throw new UserServiceUnavailableException(cause);
+        }
+        log.warn("User service unavailable (circuit {}), serving last known good data", circuitBreaker.state());
+        return value;
+    }
+}
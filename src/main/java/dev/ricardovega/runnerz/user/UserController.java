@@ -0,0 +1,37 @@
+package dev.ricardovega.runnerz.user;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+
+// Users of the user service, read through ResilientUserClient: while the service is down the last known
+// users are served, and 503 Service Unavailable is returned when there are none
+@RestController
+@RequestMapping("/api/users") // Maps the controller to the base path "/api/users"
+public class UserController {
+
+    private final ResilientUserClient userClient;
+
+    // Constructor to inject the ResilientUserClient dependency
+    public UserController(ResilientUserClient userClient) {
+        this.userClient = userClient;
+    }
+
+    @GetMapping("")
+    List<User> findAll() {
+        return userClient.findAll();
+    }
+
+    @GetMapping("/{id}")
+    User findById(@PathVariable Integer id) {
+        try {
+            return userClient.findById(id);
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new UserNotFoundException(); // The user service's 404, not a failure of this application
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.user;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UserNotFoundException extends RuntimeException {
+
+    public UserNotFoundException() {
+        super("Could not find User");
+    }
+}
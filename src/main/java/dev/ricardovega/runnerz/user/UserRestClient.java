@@ -1,5 +1,6 @@
 package dev.ricardovega.runnerz.user;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
@@ -12,9 +13,10 @@ public class UserRestClient {
     private final RestClient restClient; // The RestClient used to make HTTP requests
 
     // Constructor to initialize the RestClient with a custom builder
-    public UserRestClient(RestClient.Builder builder) {
+    public UserRestClient(RestClient.Builder builder,
+                          @Value("${runnerz.users.base-url:https://jsonplaceholder.typicode.com/}") String baseUrl) {
         this.restClient = builder
-                .baseUrl("https://jsonplaceholder.typicode.com/") // Set the base URL for the API
+                .baseUrl(baseUrl) // Set the base URL for the API
                 .build(); // Build the RestClient instance
     }
 
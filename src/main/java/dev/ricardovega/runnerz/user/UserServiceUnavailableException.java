@@ -0,0 +1,12 @@
+package dev.ricardovega.runnerz.user;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UserServiceUnavailableException extends RuntimeException {
+
+    public UserServiceUnavailableException(Throwable cause) {
+        super("User service is unavailable", cause);
+    }
+}
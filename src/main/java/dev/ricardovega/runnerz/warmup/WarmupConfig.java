@@ -0,0 +1,20 @@
+package dev.ricardovega.runnerz.warmup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(prefix = "runnerz.warmup", name = "enabled", havingValue = "true")
+public class WarmupConfig {
+
+    @Bean
+    FilterRegistrationBean<WarmupRequestFilter> warmupRequestFilter() {
+        FilterRegistrationBean<WarmupRequestFilter> registration = new FilterRegistrationBean<>(new WarmupRequestFilter());
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE); // Before TracingFilter, which skips warm-up requests
+        return registration;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.ricardovega.runnerz.warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Share of each run endpoint in the warm-up traffic, in percent. Only reads are replayed, so warming up
+// never changes the stored runs.
+public record WarmupMix(Map<Operation, Integer> weights) {
+
+    public enum Operation {
+        FIND_ALL, FIND_ALL_FIELDS, FIND_BY_ID, FIND_BY_LOCATION;
+
+        // Path of a request for this operation; ids are the stored run ids, random picks one of them
+        String path(List<Integer> ids, int random) {
+            return switch (this) {
+                case FIND_ALL -> "/api/runs";
+                case FIND_ALL_FIELDS -> "/api/runs?fields=id,title,miles";
+                case FIND_BY_ID -> "/api/runs/" + (ids.isEmpty() ? 1 : ids.get(Math.floorMod(random, ids.size())));
+                case FIND_BY_LOCATION -> "/api/runs/location/" + (random % 2 == 0 ? "INDOOR" : "OUTDOOR");
+            };
+        }
+    }
+
+    public WarmupMix {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (total != 100) {
+            throw new IllegalArgumentException("Warm-up mix must add up to 100 but was " + total);
+        }
+    }
+
+    // Parse a mix such as "FIND_ALL:10,FIND_ALL_FIELDS:5,FIND_BY_ID:70,FIND_BY_LOCATION:15"
+    public static WarmupMix parse(String mix) {
+        Map<Operation, Integer> parsed = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            parsed.put(Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return new WarmupMix(parsed);
+    }
+
+    // Map a random number in [0, 100) to an operation according to the mix
+    Operation pick(int percentile) {
+        int cumulative = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            cumulative += entry.getValue();
+            if (percentile < cumulative) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Warm-up mix does not cover " + percentile);
+    }
+}
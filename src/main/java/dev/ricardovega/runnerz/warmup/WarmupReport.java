@@ -0,0 +1,30 @@
+package dev.ricardovega.runnerz.warmup;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Outcome of the warm-up: how long it took and the latency of the first and the last round
+public record WarmupReport(
+        Duration duration,
+        int rounds,
+        int requests,
+        int errors,
+        boolean stable, // False when runnerz.warmup.max-duration ran out before the p50 settled
+        Latency before,
+        Latency after
+) {
+
+    public record Latency(Duration p50, Duration p99) {
+
+        // Percentiles of the given request latencies in nanoseconds
+        static Latency of(long[] nanos) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return new Latency(percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+
+        private static Duration percentile(long[] sorted, double quantile) {
+            return Duration.ofNanos(sorted[(int) Math.ceil(sorted.length * quantile) - 1]);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.ricardovega.runnerz.warmup;
+
+// Marks the requests the warm-up sends to its own port, so they are not traced and not counted in the
+// lookup and overlap metrics. WarmupRequestFilter binds the mark to the thread handling such a request.
+public final class WarmupRequest {
+
+    public static final String HEADER = "X-Warmup";
+
+    private static final ThreadLocal<Boolean> CURRENT = new ThreadLocal<>();
+
+    private WarmupRequest() {
+    }
+
+    // True while this thread handles a request sent by the warm-up
+    public static boolean isCurrent() {
+        return CURRENT.get() != null;
+    }
+
+    static void set() {
+        CURRENT.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,41 @@
+package dev.ricardovega.runnerz.warmup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// Marks requests with the X-Warmup header as warm-up traffic. Only requests from a loopback address
+// are marked, so a remote client cannot keep its requests out of the traces and metrics.
+public class WarmupRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getHeader(WarmupRequest.HEADER) == null || !isLoopback(request.getRemoteAddr())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        WarmupRequest.set();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            WarmupRequest.clear();
+        }
+    }
+
+    // The remote address is an IP literal, so this does not resolve any name
+    private static boolean isLoopback(String address) {
+        try {
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
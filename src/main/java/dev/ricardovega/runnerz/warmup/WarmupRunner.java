@@ -0,0 +1,214 @@
+package dev.ricardovega.runnerz.warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Replays a synthetic mix of run reads against the local port after startup, so Tomcat, Spring MVC, Jackson,
+// the JDBC mapping and the connection pool are compiled and primed before real traffic arrives.
+// Requests are sent in rounds until the p50 of a round stays within runnerz.warmup.tolerance of the previous
+// round for runnerz.warmup.stable-rounds rounds, or runnerz.warmup.max-duration runs out.
+// Spring Boot only reports the application ready (/actuator/health/readiness) after all startup runners
+// have finished, so a load balancer keeps traffic away until the warm-up is done.
+// The requests carry the X-Warmup header, so they stay out of the traces and the lookup and overlap metrics.
+@Component
+@Order(10) // After the seed data and the rollup backfill
+@ConditionalOnProperty(prefix = "runnerz.warmup", name = "enabled", havingValue = "true")
+public class WarmupRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final WarmupMix mix;
+    private final int roundSize;
+    private final int concurrency;
+    private final double tolerance;
+    private final int stableRounds;
+    private final Duration maxDuration;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private volatile WarmupReport report;
+
+    public WarmupRunner(Environment environment,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${runnerz.warmup.mix:FIND_ALL:10,FIND_ALL_FIELDS:5,FIND_BY_ID:70,FIND_BY_LOCATION:15}") String mix,
+                        @Value("${runnerz.warmup.round-size:200}") int roundSize,
+                        @Value("${runnerz.warmup.concurrency:4}") int concurrency,
+                        @Value("${runnerz.warmup.tolerance:0.1}") double tolerance,
+                        @Value("${runnerz.warmup.stable-rounds:3}") int stableRounds,
+                        @Value("${runnerz.warmup.max-duration:60s}") Duration maxDuration) {
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.mix = WarmupMix.parse(mix);
+        this.roundSize = roundSize;
+        this.concurrency = concurrency;
+        this.tolerance = tolerance;
+        this.stableRounds = stableRounds;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(String... args) throws InterruptedException {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            log.info("Skipping warm-up, the application is not listening on a port");
+            return;
+        }
+        URI baseUri = URI.create("http://localhost:" + port);
+        List<Integer> ids = runIds(baseUri);
+
+        long start = System.nanoTime();
+        long end = start + maxDuration.toNanos();
+        List<Duration> p50s = new ArrayList<>();
+        WarmupReport.Latency before = null;
+        WarmupReport.Latency after = null;
+        int requests = 0;
+        int errors = 0;
+        boolean stable = false;
+        while (!stable && System.nanoTime() < end) {
+            long[] latencies = round(baseUri, ids);
+            long[] succeeded = Arrays.stream(latencies).filter(nanos -> nanos >= 0).toArray();
+            requests += latencies.length;
+            errors += latencies.length - succeeded.length;
+            if (succeeded.length == 0) {
+                log.warn("Stopping warm-up, all {} requests of the last round failed", latencies.length);
+                break;
+            }
+            after = WarmupReport.Latency.of(succeeded);
+            if (before == null) {
+                before = after;
+            }
+            p50s.add(after.p50());
+            stable = isStable(p50s, tolerance, stableRounds);
+        }
+
+        if (before == null) {
+            return; // Nothing succeeded, there is nothing to report
+        }
+        report = new WarmupReport(Duration.ofNanos(System.nanoTime() - start), p50s.size(), requests, errors, stable, before, after);
+        log.info("Warm-up {} after {} ms, {} rounds and {} requests ({} failed): p50 {} us -> {} us, p99 {} us -> {} us",
+                stable ? "finished" : "stopped unstable", report.duration().toMillis(), report.rounds(), requests, errors,
+                before.p50().toNanos() / 1_000, after.p50().toNanos() / 1_000,
+                before.p99().toNanos() / 1_000, after.p99().toNanos() / 1_000);
+        registerGauges();
+    }
+
+    // Report of the finished warm-up, null until then
+    public WarmupReport report() {
+        return report;
+    }
+
+    // True when each of the last stableRounds p50s differs from the one before by at most tolerance
+    static boolean isStable(List<Duration> p50s, double tolerance, int stableRounds) {
+        if (p50s.size() <= stableRounds) {
+            return false;
+        }
+        for (int i = p50s.size() - stableRounds; i < p50s.size(); i++) {
+            double previous = p50s.get(i - 1).toNanos();
+            double change = Math.abs(p50s.get(i).toNanos() - previous) / previous;
+            if (change > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // One round of requests from concurrency virtual threads; latencies in nanoseconds, -1 for failed requests
+    private long[] round(URI baseUri, List<Integer> ids) throws InterruptedException {
+        int perWorker = Math.max(1, roundSize / concurrency);
+        long[] latencies = new long[perWorker * concurrency];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                int offset = worker * perWorker;
+                executor.submit(() -> {
+                    for (int i = 0; i < perWorker; i++) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        WarmupMix.Operation operation = mix.pick(random.nextInt(100));
+                        latencies[offset + i] = send(baseUri.resolve(operation.path(ids, random.nextInt(Integer.MAX_VALUE))));
+                    }
+                    return null;
+                });
+            }
+        } // Closing the executor waits for the round to finish
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Interrupted during warm-up");
+        }
+        return latencies;
+    }
+
+    // Latency of one GET in nanoseconds, or -1 if it failed; a 404 still exercises the whole path
+    private long send(URI uri) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request(uri), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 500) {
+                return -1;
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Ids of the stored runs, read with a projection; FIND_BY_ID requests pick from these
+    private List<Integer> runIds(URI baseUri) throws InterruptedException {
+        try {
+            HttpResponse<String> response = httpClient.send(request(baseUri.resolve("/api/runs?fields=id")),
+                    HttpResponse.BodyHandlers.ofString());
+            List<Map<String, Integer>> rows = objectMapper.readValue(response.body(), new TypeReference<>() {});
+            return rows.stream().map(row -> row.get("id")).toList();
+        } catch (IOException e) {
+            log.warn("Could not read run ids for the warm-up, looking up run 1 only", e);
+            return List.of();
+        }
+    }
+
+    // GET marked as warm-up traffic, which is not traced or counted in the request metrics
+    private static HttpRequest request(URI uri) {
+        return HttpRequest.newBuilder(uri).header(WarmupRequest.HEADER, "true").GET().build();
+    }
+
+    private void registerGauges() {
+        gauge("runnerz.warmup.duration", "Time spent warming up", Map.of(), r -> r.duration().toNanos());
+        gauge("runnerz.warmup.latency", "p50 latency of the first warm-up round", Map.of("phase", "before", "quantile", "0.5"), r -> r.before().p50().toNanos());
+        gauge("runnerz.warmup.latency", "p99 latency of the first warm-up round", Map.of("phase", "before", "quantile", "0.99"), r -> r.before().p99().toNanos());
+        gauge("runnerz.warmup.latency", "p50 latency of the last warm-up round", Map.of("phase", "after", "quantile", "0.5"), r -> r.after().p50().toNanos());
+        gauge("runnerz.warmup.latency", "p99 latency of the last warm-up round", Map.of("phase", "after", "quantile", "0.99"), r -> r.after().p99().toNanos());
+    }
+
+    private void gauge(String name, String description, Map<String, String> tags, ToDoubleFunction<WarmupReport> nanos) {
+        TimeGauge.Builder<WarmupReport> builder = TimeGauge.builder(name, report, TimeUnit.NANOSECONDS, nanos).description(description);
+        tags.forEach(builder::tag);
+        builder.register(meterRegistry);
+    }
+}
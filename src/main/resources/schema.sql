@@ -1,5 +1,13 @@
+DROP TABLE IF EXISTS run_track;
+DROP TABLE IF EXISTS run_rollup;
 DROP TABLE IF EXISTS Run;
+DROP SEQUENCE IF EXISTS run_id_seq;
 
+-- Runs are range partitioned by month on started_on (see RunPartitionMaintenance).
+-- Rows for months without a partition yet land in run_default until their partition is created.
+-- PostgreSQL requires the partition key in every unique constraint, so the primary key alone does not keep ids
+-- unique. Each partition has its own unique index on id, and ids are unique across partitions because they only
+-- come from run_id_seq: explicit ids are checked on insert and move the sequence past them.
 CREATE TABLE IF NOT EXISTS Run (
     id INT NOT NULL,
     title varchar(250) NOT NULL,
@@ -8,5 +16,38 @@ CREATE TABLE IF NOT EXISTS Run (
     miles INT NOT NULL,
     location varchar(10) NOT NULL,
     version INT,
-    PRIMARY KEY (id)
-);
\ No newline at end of file
+    PRIMARY KEY (id, started_on)
+) PARTITION BY RANGE (started_on);
+
+CREATE TABLE IF NOT EXISTS run_default PARTITION OF Run DEFAULT;
+CREATE UNIQUE INDEX IF NOT EXISTS run_default_id ON run_default (id);
+
+-- Run ids are allocated in blocks by RunIdAllocator, INCREMENT BY must match runnerz.id.block-size
+CREATE SEQUENCE IF NOT EXISTS run_id_seq START WITH 1 INCREMENT BY 50;
+
+-- Moves run_id_seq past an id stored without RunIdAllocator, so nextval never returns a block containing it
+CREATE OR REPLACE FUNCTION advance_run_id_seq(past bigint) RETURNS bigint LANGUAGE sql AS
+'SELECT setval(''run_id_seq'', GREATEST(past, last_value)) FROM run_id_seq';
+
+-- GPS tracks, delta/varint encoded by TrackCodec; the summary columns are computed on upload
+-- run_id has no foreign key: the partitioned run table has no unique key on id alone to reference.
+-- Tracks are deleted in the same transaction as their run instead.
+CREATE TABLE IF NOT EXISTS run_track (
+    run_id INT NOT NULL,
+    point_count INT NOT NULL,
+    distance_meters DOUBLE PRECISION NOT NULL,
+    duration_seconds BIGINT NOT NULL,
+    split_seconds BYTEA NOT NULL,
+    points BYTEA NOT NULL,
+    PRIMARY KEY (run_id)
+);
+
+-- Weekly and monthly totals per location, maintained by RunRollupRepository
+CREATE TABLE IF NOT EXISTS run_rollup (
+    period varchar(5) NOT NULL,
+    period_start date NOT NULL,
+    location varchar(10) NOT NULL,
+    run_count INT NOT NULL,
+    miles BIGINT NOT NULL,
+    PRIMARY KEY (period, period_start, location)
+);
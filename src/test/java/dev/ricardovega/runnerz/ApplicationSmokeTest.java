@@ -0,0 +1,87 @@
+package dev.ricardovega.runnerz;
+
+import dev.ricardovega.runnerz.run.Location;
+import dev.ricardovega.runnerz.run.Run;
+import dev.ricardovega.runnerz.run.RunPurge;
+import dev.ricardovega.runnerz.track.TrackSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starts the whole application on an embedded H2 database, so wiring problems (e.g. proxies that no longer
+// match an injected type) fail here rather than only against PostgreSQL
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnerz-smoke;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.schema-locations=classpath:embedded-schema.sql",
+        "runnerz.tracing.enabled=true", // Repository beans are proxied, as in production with tracing on
+        "runnerz.tracing.file=target/traces/spans.jsonl"
+})
+class ApplicationSmokeTest {
+
+    @LocalServerPort
+    int randomServerPort;
+
+    RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        restClient = RestClient.create("http://localhost:" + randomServerPort);
+    }
+
+    // Test case to check if the seeded runs are served and the application reports ready
+    @Test
+    void shouldServeSeededRuns() {
+        List<Run> runs = restClient.get().uri("/api/runs").retrieve().body(new ParameterizedTypeReference<>() {});
+        Map<String, Object> readiness = restClient.get().uri("/actuator/health/readiness").retrieve().body(new ParameterizedTypeReference<>() {});
+
+        assertFalse(runs.isEmpty());
+        assertEquals("UP", readiness.get("status"));
+    }
+
+    // Test case to check if a created run can have a track uploaded and be purged again
+    @Test
+    void shouldCreateTrackAndPurgeRun() throws InterruptedException {
+        LocalDateTime startedOn = LocalDateTime.of(2001, 5, 1, 7, 0); // Before every seeded run
+        ResponseEntity<Run> created = restClient.post().uri("/api/runs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new Run(null, "Smoke Test Run", startedOn, startedOn.plusMinutes(30), 3, Location.OUTDOOR, null))
+                .retrieve().toEntity(Run.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        Run run = created.getBody();
+
+        TrackSummary summary = restClient.post().uri("/api/runs/{id}/track", run.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("""
+                        [{"lat":40.0,"lng":-73.9,"time":"2001-05-01T07:00:00Z"},{"lat":40.001,"lng":-73.9,"time":"2001-05-01T07:00:30Z"}]""")
+                .retrieve().body(TrackSummary.class);
+        assertEquals(2, summary.pointCount());
+
+        ResponseEntity<RunPurge> started = restClient.delete().uri("/api/runs?before=2001-06-01T00:00")
+                .retrieve().toEntity(RunPurge.class);
+        assertEquals(HttpStatus.ACCEPTED, started.getStatusCode());
+        RunPurge purge = started.getBody();
+        for (int i = 0; i < 100 && purge.status() != RunPurge.Status.COMPLETED && purge.status() != RunPurge.Status.FAILED; i++) {
+            Thread.sleep(50);
+            purge = restClient.get().uri(started.getHeaders().getLocation().getPath()).retrieve().body(RunPurge.class);
+        }
+
+        assertEquals(RunPurge.Status.COMPLETED, purge.status());
+        assertEquals(1, purge.deleted());
+        assertEquals(HttpStatus.NOT_FOUND, restClient.get().uri("/api/runs/{id}/track/summary", run.id())
+                .exchange((request, response) -> response.getStatusCode()));
+    }
+}
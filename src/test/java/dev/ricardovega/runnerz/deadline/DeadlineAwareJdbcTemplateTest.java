@@ -0,0 +1,70 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineAwareJdbcTemplateTest {
+
+    DeadlineAwareJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new DeadlineAwareJdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", ""));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    // Test case to check if statements get the remaining budget as query timeout
+    @Test
+    void shouldApplyRemainingBudgetAsQueryTimeout() {
+        Deadline.set(Deadline.after(Duration.ofMillis(2500)));
+
+        int timeout = jdbcTemplate.execute((Statement statement) -> statement.getQueryTimeout());
+
+        assertEquals(3, timeout); // Assert that 2.5s is rounded up to whole seconds
+    }
+
+    // Test case to check if statements run without a timeout outside a request
+    @Test
+    void shouldNotLimitStatementsWithoutDeadline() {
+        int timeout = jdbcTemplate.execute((Statement statement) -> statement.getQueryTimeout());
+
+        assertEquals(0, timeout); // Assert that no timeout was set
+    }
+
+    // Test case to check if no statement is sent once the deadline has passed
+    @Test
+    void shouldFailFastWhenDeadlineExpired() {
+        Deadline.set(Deadline.after(Duration.ZERO));
+
+        assertThrows(DeadlineExceededException.class, () -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+    }
+
+    // Test case to check if the deadline is visible to work handed to another thread
+    @Test
+    void shouldPropagateDeadlineToOtherThreads() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        Deadline.set(deadline);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertNull(executor.submit(Deadline::current).get()); // Assert that a plain task does not see it
+            assertSame(deadline, executor.submit(Deadline.propagate(Deadline::current)).get()); // Assert that a propagated task does
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
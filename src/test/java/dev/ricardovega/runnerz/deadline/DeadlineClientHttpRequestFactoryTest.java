@@ -0,0 +1,101 @@
+package dev.ricardovega.runnerz.deadline;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sends real requests to a local server that records the deadline header and can be told to stall
+class DeadlineClientHttpRequestFactoryTest {
+
+    HttpServer server;
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    AtomicReference<String> receivedHeader = new AtomicReference<>();
+    AtomicInteger requests = new AtomicInteger();
+    volatile Duration delay = Duration.ZERO;
+    DeadlineClientHttpRequestFactory factory = new DeadlineClientHttpRequestFactory(HttpClient.newHttpClient(), Duration.ofSeconds(10));
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            receivedHeader.set(exchange.getRequestHeaders().getFirst(DeadlineInterceptor.TIMEOUT_HEADER));
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // Test case to check if calls outside a request send no deadline header
+    @Test
+    void shouldNotSendHeaderWithoutDeadline() throws IOException {
+        try (ClientHttpResponse response = factory.createRequest(uri(), HttpMethod.GET).execute()) {
+            assertEquals(204, response.getStatusCode().value());
+        }
+        assertNull(receivedHeader.get());
+    }
+
+    // Test case to check if the remaining budget is forwarded to the called service
+    @Test
+    void shouldForwardRemainingBudget() throws IOException {
+        Deadline.set(Deadline.after(Duration.ofSeconds(2)));
+
+        factory.createRequest(uri(), HttpMethod.GET).execute().close();
+
+        long forwarded = Long.parseLong(receivedHeader.get());
+        assertTrue(forwarded > 1000 && forwarded <= 2000, "Forwarded " + forwarded + " ms");
+    }
+
+    // Test case to check if a call stops waiting once the request deadline has passed
+    @Test
+    void shouldTimeOutAtDeadline() {
+        delay = Duration.ofSeconds(3);
+        Deadline.set(Deadline.after(Duration.ofMillis(300)));
+
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> factory.createRequest(uri(), HttpMethod.GET).execute());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0); // Did not wait for the server
+    }
+
+    // Test case to check if no call is made when the deadline has already passed
+    @Test
+    void shouldFailFastWhenDeadlinePassed() {
+        Deadline.set(Deadline.after(Duration.ZERO));
+
+        assertThrows(DeadlineExceededException.class, () -> factory.createRequest(uri(), HttpMethod.GET));
+        assertEquals(0, requests.get());
+    }
+
+    private URI uri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/users");
+    }
+}
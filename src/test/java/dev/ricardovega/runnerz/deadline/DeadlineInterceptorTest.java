@@ -0,0 +1,107 @@
+package dev.ricardovega.runnerz.deadline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DeadlineInterceptorTest {
+
+    DeadlineInterceptor interceptor = new DeadlineInterceptor(Duration.ofSeconds(30));
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    // Test case to check if requests without a header get the default budget
+    @Test
+    void shouldUseDefaultTimeout() throws Exception {
+        preHandle(null, "plain");
+
+        assertBetween(Duration.ofSeconds(29), Duration.ofSeconds(30), Deadline.current().remaining());
+    }
+
+    // Test case to check if a shorter header shortens the budget and a longer one does not extend it
+    @Test
+    void shouldLetHeaderOnlyShortenBudget() throws Exception {
+        preHandle(" 1500 ", "plain");
+        assertBetween(Duration.ofMillis(1000), Duration.ofMillis(1500), Deadline.current().remaining());
+
+        preHandle("60000", "timed");
+        assertBetween(Duration.ofMillis(1500), Duration.ofSeconds(2), Deadline.current().remaining()); // @RequestTimeout("2s") still applies
+    }
+
+    // Test case to check if the deadline is removed from the thread once the request is done
+    @Test
+    void shouldClearDeadlineAfterCompletion() throws Exception {
+        preHandle(null, "plain");
+
+        interceptor.afterCompletion(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("plain"), null);
+
+        assertNull(Deadline.current());
+    }
+
+    // Test case to check if malformed and negative headers are rejected instead of giving up on the request
+    @Test
+    void shouldRejectInvalidHeader() {
+        assertThrows(InvalidRequestTimeoutException.class, () -> preHandle("-5", "plain"));
+        assertThrows(InvalidRequestTimeoutException.class, () -> preHandle("soon", "plain"));
+        assertNull(Deadline.current());
+    }
+
+    // Test case to check if the invalid headers give 400 and a spent budget gives 504 over HTTP
+    @Test
+    void shouldAnswerWithStatus() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new Endpoints())
+                .addMappedInterceptors(new String[]{"/api/**"}, interceptor)
+                .build();
+
+        mvc.perform(get("/api/plain").header(DeadlineInterceptor.TIMEOUT_HEADER, "-5")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/plain").header(DeadlineInterceptor.TIMEOUT_HEADER, "soon")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/plain").header(DeadlineInterceptor.TIMEOUT_HEADER, "0")).andExpect(status().isGatewayTimeout());
+        mvc.perform(get("/api/plain").header(DeadlineInterceptor.TIMEOUT_HEADER, "500")).andExpect(status().isOk());
+    }
+
+    private void preHandle(String header, String endpoint) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/" + endpoint);
+        if (header != null) {
+            request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, header);
+        }
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler(endpoint));
+    }
+
+    private static HandlerMethod handler(String endpoint) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod(endpoint));
+    }
+
+    private static void assertBetween(Duration min, Duration max, Duration actual) {
+        assertTrue(actual.compareTo(min) >= 0 && actual.compareTo(max) <= 0, "Expected " + min + " to " + max + " but was " + actual);
+    }
+
+    @RestController
+    static class Endpoints {
+
+        @GetMapping("/api/plain")
+        String plain() {
+            return "ok";
+        }
+
+        @RequestTimeout("2s")
+        @GetMapping("/api/timed")
+        String timed() {
+            return "ok";
+        }
+    }
+}
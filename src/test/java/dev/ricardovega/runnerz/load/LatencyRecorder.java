@@ -0,0 +1,58 @@
+package dev.ricardovega.runnerz.load;
+
+import java.util.Arrays;
+
+// Records request latencies for one operation and reports percentiles.
+// Values are kept exactly (in microseconds) so p99/p999 are not bucket approximations.
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    // Record the latency of a request, measured from its intended start time
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2); // Grow the backing array when full
+        }
+        latencies[count++] = latencyNanos / 1_000;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    // Take a snapshot of the recorded latencies as a report entry
+    synchronized OperationReport report(String operation, double durationSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new OperationReport(operation,
+                count,
+                errors,
+                count / durationSeconds,
+                percentile(sorted, 50.0),
+                percentile(sorted, 99.0),
+                percentile(sorted, 99.9),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000.0);
+    }
+
+    // Nearest-rank percentile in milliseconds
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000.0;
+    }
+
+    record OperationReport(
+            String operation,
+            int requests,
+            int errors,
+            double throughput, // Completed requests per second
+            double p50Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxMillis
+    ) {
+    }
+}
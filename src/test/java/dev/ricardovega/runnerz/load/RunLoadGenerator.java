@@ -0,0 +1,149 @@
+package dev.ricardovega.runnerz.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load generator for the /api/runs endpoints.
+// Requests are issued at a fixed rate on virtual threads and latency is measured from the moment a request
+// was scheduled to start, so a slow server shows up as queueing delay instead of a lower request rate.
+class RunLoadGenerator {
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final LoadProfile profile;
+    private final AtomicInteger createdRuns = new AtomicInteger();
+    private final Map<Operation, LatencyRecorder> recorders = new LinkedHashMap<>();
+
+    RunLoadGenerator(URI baseUri, LoadProfile profile) {
+        this.httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUri = baseUri;
+        this.profile = profile;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+    }
+
+    // Drive the configured mix for the configured duration and return the report
+    LoadReport run() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.requestsPerSecond();
+        long totalRequests = profile.requestsPerSecond() * profile.duration().toSeconds();
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < totalRequests; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait); // Keep the schedule; never wait for earlier requests to finish
+                }
+                Operation operation = profile.pick(ThreadLocalRandom.current().nextInt(100));
+                executor.submit(() -> execute(operation, intendedStart));
+            }
+        } // Closing the executor waits for in-flight requests
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        List<LatencyRecorder.OperationReport> operations = new ArrayList<>();
+        recorders.forEach((operation, recorder) -> operations.add(recorder.report(operation.name(), seconds)));
+        return new LoadReport(profile, seconds, operations);
+    }
+
+    // Send one request and record its latency against the operation
+    private void execute(Operation operation, long intendedStart) {
+        boolean success;
+        try {
+            HttpResponse<Void> response = httpClient.send(request(operation), HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (Exception e) {
+            success = false;
+        }
+        recorders.get(operation).record(System.nanoTime() - intendedStart, success);
+    }
+
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case FIND_ALL -> HttpRequest.newBuilder(baseUri.resolve("/api/runs")).GET().build();
+            case FIND_BY_ID -> HttpRequest.newBuilder(baseUri.resolve("/api/runs/" + (1 + ThreadLocalRandom.current().nextInt(profile.seededRuns())))).GET().build();
+            case FIND_BY_LOCATION -> HttpRequest.newBuilder(baseUri.resolve("/api/runs/location/" + (ThreadLocalRandom.current().nextBoolean() ? "INDOOR" : "OUTDOOR"))).GET().build();
+            case CREATE -> HttpRequest.newBuilder(baseUri.resolve("/api/runs"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(newRunJson()))
+                    .build();
+        };
+    }
+
+    // Runs are created without an id, the server assigns it
+    // Each run gets its own half hour, away from the seeded runs, so none is rejected as overlapping
+    private String newRunJson() {
+        int n = createdRuns.incrementAndGet();
+        LocalDateTime startedOn = LocalDateTime.of(2000, 1, 1, 0, 0).plusMinutes(30L * n);
+        return """
+                {"title":"Load Test Run %d","started_on":"%s","completed_on":"%s","miles":5,"location":"OUTDOOR"}
+                """.formatted(n, startedOn, startedOn.plusMinutes(30));
+    }
+
+    enum Operation {
+        FIND_ALL, FIND_BY_ID, FIND_BY_LOCATION, CREATE
+    }
+
+    // Rate, duration and operation mix (percentages that add up to 100) of a load test
+    record LoadProfile(
+            int requestsPerSecond,
+            Duration duration,
+            Map<Operation, Integer> mix,
+            int seededRuns // Ids 1..seededRuns are expected to exist for FIND_BY_ID
+    ) {
+
+        LoadProfile {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            if (total != 100) {
+                throw new IllegalArgumentException("Operation mix must add up to 100 but was " + total);
+            }
+        }
+
+        // Parse a mix such as "FIND_ALL:10,FIND_BY_ID:60,FIND_BY_LOCATION:10,CREATE:20"
+        static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> parsed = new LinkedHashMap<>();
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                parsed.put(Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+            return parsed;
+        }
+
+        // Map a random number in [0, 100) to an operation according to the mix
+        Operation pick(int percentile) {
+            int cumulative = 0;
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                cumulative += entry.getValue();
+                if (percentile < cumulative) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Operation mix does not cover " + percentile);
+        }
+    }
+
+    record LoadReport(
+            LoadProfile profile,
+            double durationSeconds,
+            List<LatencyRecorder.OperationReport> operations
+    ) {
+    }
+}
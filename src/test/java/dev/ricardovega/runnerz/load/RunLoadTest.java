@@ -0,0 +1,53 @@
+package dev.ricardovega.runnerz.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Mixed read/write load test against the full application on an embedded H2 database.
+// Excluded from the normal build, run with: ./mvnw test -Pload-test
+// Tune with -Dload.rate=200 -Dload.duration=PT30S -Dload.mix=FIND_ALL:10,FIND_BY_ID:60,FIND_BY_LOCATION:10,CREATE:20
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnerz-load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.schema-locations=classpath:embedded-schema.sql"
+})
+class RunLoadTest {
+
+    @LocalServerPort
+    int randomServerPort;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void shouldSustainMixedLoad() throws Exception {
+        RunLoadGenerator.LoadProfile profile = new RunLoadGenerator.LoadProfile(
+                Integer.getInteger("load.rate", 100),
+                Duration.parse(System.getProperty("load.duration", "PT10S")),
+                RunLoadGenerator.LoadProfile.parseMix(System.getProperty("load.mix", "FIND_ALL:10,FIND_BY_ID:60,FIND_BY_LOCATION:10,CREATE:20")),
+                10); // Runs loaded from data/runs.json
+
+        RunLoadGenerator.LoadReport report = new RunLoadGenerator(URI.create("http://localhost:" + randomServerPort), profile).run();
+
+        File reportFile = new File(System.getProperty("load.report", "target/load-report.json"));
+        reportFile.getParentFile().mkdirs();
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+
+        report.operations().forEach(operation ->
+                assertTrue(operation.errors() == 0, operation.operation() + " had " + operation.errors() + " failed requests"));
+    }
+}
@@ -0,0 +1,56 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Creates fresh in-memory H2 databases with the run schema for tests that do not start a Spring context
+// Public, as H2 calls advanceRunIdSeq by name for the advance_run_id_seq alias in embedded-schema.sql
+public final class EmbeddedRunDatabases {
+
+    private EmbeddedRunDatabases() {
+    }
+
+    // A new, empty database with the embedded schema applied
+    public static DataSource create() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("embedded-schema.sql")), dataSource);
+        return dataSource;
+    }
+
+    // advance_run_id_seq for H2: PostgreSQL's setval(GREATEST(past, last_value)), written as a RESTART since H2
+    // has no setval. Returns the value the last nextval would have returned, like setval does.
+    public static long advanceRunIdSeq(Connection connection, long past) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet sequence = statement.executeQuery("SELECT base_value, increment FROM information_schema.sequences WHERE lower(sequence_name) = 'run_id_seq'")) {
+            sequence.next();
+            long next = sequence.getLong(1);
+            long increment = sequence.getLong(2);
+            if (past + increment <= next) {
+                return next - increment; // Already past it
+            }
+            statement.execute("ALTER SEQUENCE run_id_seq RESTART WITH " + (past + increment));
+            return past;
+        }
+    }
+
+    // Several independent databases, e.g. to use as shards
+    public static List<DataSource> create(int count) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            dataSources.add(create());
+        }
+        return dataSources;
+    }
+}
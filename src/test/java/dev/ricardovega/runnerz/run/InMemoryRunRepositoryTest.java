@@ -8,6 +8,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryRunRepositoryTest {
 
@@ -47,15 +48,22 @@ class InMemoryRunRepositoryTest {
         assertEquals(3, run.miles()); // Assert that the miles value is correct
     }
 
-    // Test case to check if trying to find a run with an invalid ID throws the expected exception
+    // Test case to check if trying to find a run with an invalid ID returns an empty Optional, like the other engines
     @Test
     void shouldNotFindRunWithInvalidId() {
+        var run = repository.findById(3); // Try to find a run with an invalid ID
+        assertTrue(run.isEmpty()); // Assert that the result is empty, meaning no run was found
+    }
+
+    // Test case to check if deleting a missing run throws the expected exception
+    @Test
+    void shouldNotDeleteMissingRun() {
         RunNotFoundException notFoundException = assertThrows( // Assert that the exception is thrown
                 RunNotFoundException.class,
-                () -> repository.findById(3).get() // Try to retrieve a run with an invalid ID
+                () -> repository.delete(3) // Try to delete a run with an invalid ID
         );
 
-        assertEquals("Run Not Found", notFoundException.getMessage()); // Assert that the exception message is correct
+        assertEquals("Could not find Run", notFoundException.getMessage()); // Assert that the exception message is correct
     }
 
     // Test case to check if a new run is created and added correctly to the repository
@@ -71,6 +79,19 @@ class InMemoryRunRepositoryTest {
         assertEquals(3, runs.size()); // Assert that the number of runs is now 3
     }
 
+    // Test case to check if a run created without an id gets the next id after the existing ones
+    @Test
+    void shouldAssignNextIdToNewRun() {
+        repository.create(new Run(null,
+                "Friday Morning Run",
+                LocalDateTime.now(),
+                LocalDateTime.now().plusMinutes(30),
+                3,
+                Location.INDOOR, null));
+        var run = repository.findById(3).get(); // Retrieve the run by the id it should have been given
+        assertEquals("Friday Morning Run", run.title()); // Assert that it is the run just created
+    }
+
     // Test case to check if an existing run is updated correctly
     @Test
     void shouldUpdateRun() {
@@ -0,0 +1,9 @@
+package dev.ricardovega.runnerz.run;
+
+class InMemoryRunStorageConformanceTest extends RunStorageConformanceTest {
+
+    @Override
+    RunStorage emptyStorage() {
+        return new InMemoryRunRepository();
+    }
+}
@@ -13,7 +13,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest // Marks the test class as a JDBC test that provides an embedded database for testing
-@Import(JdbcClientRunRepository.class) // Imports the JdbcClientRunRepository to be tested
+@Import({JdbcClientRunRepository.class, RunIdAllocator.class, RunShardingConfig.class, RunRollupRepository.class}) // Imports the JdbcClientRunRepository to be tested and its collaborators
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // Ensures that the existing database configuration is used, not replaced with an embedded one
 class JdbcClientRunRepositoryTest {
 
@@ -73,6 +73,19 @@ class JdbcClientRunRepositoryTest {
         assertEquals(3, runs.size()); // Assert that there are now 3 runs in the repository
     }
 
+    // Test case to check if runs created without an id get distinct server-assigned ids
+    // The explicit ids created in setUp have moved the sequence past them
+    @Test
+    void shouldAssignIdsToNewRuns() {
+        repository.saveAll(List.of(
+                new Run(null, "Tuesday Run", LocalDateTime.now(), LocalDateTime.now().plusMinutes(30), 3, Location.INDOOR, null),
+                new Run(null, "Thursday Run", LocalDateTime.now(), LocalDateTime.now().plusMinutes(30), 4, Location.OUTDOOR, null)));
+
+        List<Run> runs = repository.findAll(); // Retrieve all runs after the import
+        assertEquals(4, runs.size()); // Assert that both runs were stored
+        assertEquals(4, runs.stream().map(Run::id).distinct().count()); // Assert that every run has its own id
+    }
+
     // Test case to check if an existing run is updated correctly
     @Test
     void shouldUpdateRun() {
@@ -88,6 +101,20 @@ class JdbcClientRunRepositoryTest {
         assertEquals(Location.OUTDOOR, run.location()); // Assert that the location has been updated
     }
 
+    // Test case to check if only runs started inside the time window are returned
+    @Test
+    void shouldFindRunsStartedBetween() {
+        repository.create(new Run(3, // Create a run well outside the window used below
+                "Last Year Run",
+                LocalDateTime.now().minusYears(1),
+                LocalDateTime.now().minusYears(1).plusMinutes(30),
+                4,
+                Location.OUTDOOR, null));
+
+        List<Run> runs = repository.findAllStartedBetween(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        assertEquals(2, runs.size()); // Assert that only the two runs from setUp are in the window
+    }
+
     // Test case to check if a run is deleted correctly
     @Test
     void shouldDeleteRun() {
@@ -0,0 +1,11 @@
+package dev.ricardovega.runnerz.run;
+
+// Runs the conformance suite on two embedded H2 shards, so every operation is also checked across shards
+class JdbcClientRunStorageConformanceTest extends RunStorageConformanceTest {
+
+    @Override
+    RunStorage emptyStorage() {
+        RunShards shards = RunShards.of(EmbeddedRunDatabases.create(2));
+        return new JdbcClientRunRepository(shards, new RunIdAllocator(shards.primary().jdbcClient(), 50), new RunRollupRepository(shards));
+    }
+}
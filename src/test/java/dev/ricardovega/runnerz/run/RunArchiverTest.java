@@ -0,0 +1,114 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+// The PostgreSQL statements are checked against a mocked JdbcClient, the archive files are real
+class RunArchiverTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2023, 1);
+
+    @TempDir
+    Path directory;
+
+    JdbcClient jdbcClient = mock(JdbcClient.class, RETURNS_DEEP_STUBS);
+    RunPartitionMaintenance partitionMaintenance = mock(RunPartitionMaintenance.class);
+    ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    RunShards.Shard shard;
+    RunArchiver archiver;
+
+    // Setup method to serve two runs from the January 2023 partition
+    @BeforeEach
+    void setUp() {
+        shard = new RunShards.Shard(0, jdbcClient, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        archiver = new RunArchiver(new RunShards(List.of(shard)), partitionMaintenance, objectMapper, Period.ofYears(1), directory);
+        when(jdbcClient.sql(startsWith("SELECT * FROM run_y2023m01")).query(Run.class).stream()).thenAnswer(invocation -> Stream.of(
+                new Run(1, "Cold Run", LocalDateTime.of(2023, 1, 5, 6, 0), LocalDateTime.of(2023, 1, 5, 7, 0), 3, Location.OUTDOOR, 0),
+                new Run(2, "Colder Run", LocalDateTime.of(2023, 1, 9, 6, 0), LocalDateTime.of(2023, 1, 9, 7, 0), 4, Location.OUTDOOR, 0)));
+    }
+
+    // Test case to check if the partition is detached before it is exported and dropped only after
+    @Test
+    void shouldDetachExportAndDropInOrder() throws Exception {
+        archiver.archive(shard, JANUARY);
+
+        InOrder inOrder = inOrder(jdbcClient);
+        inOrder.verify(jdbcClient).sql("ALTER TABLE run DETACH PARTITION run_y2023m01");
+        inOrder.verify(jdbcClient).sql(startsWith("SELECT * FROM run_y2023m01"));
+        inOrder.verify(jdbcClient).sql("DROP TABLE run_y2023m01");
+
+        List<String> lines = readLines(directory.resolve("shard0_run_y2023m01.jsonl.gz"));
+        assertEquals(2, lines.size());
+        assertEquals("Cold Run", objectMapper.readValue(lines.get(0), Run.class).title());
+    }
+
+    // Test case to check if archiving the same month again writes a second file instead of overwriting the first
+    @Test
+    void shouldNotOverwriteEarlierArchive() throws Exception {
+        archiver.archive(shard, JANUARY);
+        archiver.archive(shard, JANUARY);
+
+        assertEquals(2, readLines(directory.resolve("shard0_run_y2023m01.jsonl.gz")).size());
+        assertEquals(2, readLines(directory.resolve("shard0_run_y2023m01-1.jsonl.gz")).size());
+    }
+
+    // Test case to check if a failed export attaches the partition again and keeps its rows
+    @Test
+    void shouldReattachWhenExportFails() throws Exception {
+        when(jdbcClient.sql(startsWith("SELECT * FROM run_y2023m01")).query(Run.class).stream()).thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> archiver.archive(shard, JANUARY));
+
+        verify(partitionMaintenance).attachPartition(shard, JANUARY);
+        verify(jdbcClient, never()).sql("DROP TABLE run_y2023m01");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count()); // No partial archive is left behind
+        }
+    }
+
+    // Test case to check if only whole months before the cutoff are archived
+    @Test
+    void shouldOnlyArchiveMonthsBeforeCutoff() {
+        YearMonth old = YearMonth.now().minusYears(2);
+        when(partitionMaintenance.partitions(shard)).thenReturn(List.of(old, YearMonth.now()));
+
+        archiver.archive();
+
+        verify(jdbcClient).sql("ALTER TABLE run DETACH PARTITION " + RunPartitionMaintenance.partitionName(old));
+        verify(jdbcClient, never()).sql("ALTER TABLE run DETACH PARTITION " + RunPartitionMaintenance.partitionName(YearMonth.now()));
+    }
+
+    private static List<String> readLines(Path file) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
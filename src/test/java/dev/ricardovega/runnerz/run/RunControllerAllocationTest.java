@@ -0,0 +1,158 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Allocation budgets for the RunController endpoints.
+// Bytes allocated per request are read from the thread's allocation counter (median over many requests after a
+// warm-up); a JFR recording of allocation samples is written to target/allocation/ for every endpoint, and the
+// top allocation sites from it are part of the failure message when a budget is exceeded.
+// Requests run against the whole application on an embedded H2 database with the seeded runs, so the JDBC mapping,
+// the coalescer and the overlap guard are measured too. Budgets are about twice the median observed when they were
+// set, and include MockMvc's own request and response objects.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnerz-allocation;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.schema-locations=classpath:embedded-schema.sql"
+})
+@AutoConfigureMockMvc
+class RunControllerAllocationTest {
+
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int MEASURED_REQUESTS = 500;
+    private static final LocalDateTime CREATED_FROM = LocalDateTime.of(2030, 1, 1, 0, 0); // After every seeded run
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    RunStorage runStorage;
+
+    // Remove the runs the write tests added, so every test reads the seeded runs only
+    @AfterEach
+    void tearDown() {
+        runStorage.findAllStartedBetween(CREATED_FROM.minusYears(1), CREATED_FROM.plusYears(1)).forEach(run -> runStorage.delete(run.id()));
+    }
+
+    @Test
+    void findAllShouldStayWithinBudget() throws Exception {
+        assertWithinBudget("findAll", 480 * 1024, get("/api/runs"));
+    }
+
+    @Test
+    void findByIdShouldStayWithinBudget() throws Exception {
+        assertWithinBudget("findById", 100 * 1024, get("/api/runs/{id}", runStorage.findAll().get(0).id()));
+    }
+
+    @Test
+    void findByLocationShouldStayWithinBudget() throws Exception {
+        assertWithinBudget("findByLocation", 320 * 1024, get("/api/runs/location/INDOOR"));
+    }
+
+    @Test
+    void createShouldStayWithinBudget() throws Exception {
+        List<String> bodies = new ArrayList<>();
+        for (int i = 0; i < WARMUP_REQUESTS + MEASURED_REQUESTS; i++) {
+            LocalDateTime startedOn = CREATED_FROM.plusHours(i); // Overlaps no other run
+            bodies.add(objectMapper.writeValueAsString(new Run(null, "Run " + i, startedOn, startedOn.plusMinutes(30), 3, Location.INDOOR, null)));
+        }
+        assertRequestsWithinBudget("create", 176 * 1024, i -> post("/api/runs").contentType(MediaType.APPLICATION_JSON).content(bodies.get(i)));
+    }
+
+    @Test
+    void deleteShouldStayWithinBudget() throws Exception {
+        List<Run> runs = new ArrayList<>();
+        for (int i = 0; i < WARMUP_REQUESTS + MEASURED_REQUESTS; i++) {
+            LocalDateTime startedOn = CREATED_FROM.minusYears(1).plusHours(i); // Apart from the runs created above
+            runs.add(new Run(null, "Run " + i, startedOn, startedOn.plusMinutes(30), 3, Location.OUTDOOR, null));
+        }
+        runStorage.saveAll(runs);
+        List<Integer> ids = runStorage.findAllStartedBetween(CREATED_FROM.minusYears(1), CREATED_FROM.minusYears(1).plusHours(runs.size()))
+                .stream().map(Run::id).toList();
+        assertRequestsWithinBudget("delete", 208 * 1024, i -> delete("/api/runs/{id}", ids.get(i)));
+    }
+
+    private void assertWithinBudget(String endpoint, long budgetBytes, RequestBuilder request) throws Exception {
+        assertRequestsWithinBudget(endpoint, budgetBytes, i -> request);
+    }
+
+    // Request i of the warm-up and then the measured requests; writes need a different request every time
+    private void assertRequestsWithinBudget(String endpoint, long budgetBytes, IntFunction<RequestBuilder> requests) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            mvc.perform(requests.apply(i)).andExpect(status().is2xxSuccessful()); // Let the JIT and all lazily initialized caches settle first
+        }
+
+        long[] allocated = new long[MEASURED_REQUESTS];
+        Path recordingFile = Path.of("target", "allocation", endpoint + ".jfr");
+        Files.createDirectories(recordingFile.getParent());
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "10000/s");
+            recording.start();
+            for (int i = 0; i < MEASURED_REQUESTS; i++) {
+                RequestBuilder request = requests.apply(WARMUP_REQUESTS + i);
+                long before = threads.getCurrentThreadAllocatedBytes();
+                mvc.perform(request);
+                allocated[i] = threads.getCurrentThreadAllocatedBytes() - before;
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        Arrays.sort(allocated);
+        long median = allocated[MEASURED_REQUESTS / 2];
+        assertTrue(median <= budgetBytes, () -> endpoint + " allocates " + median + " bytes per request, budget is "
+                + budgetBytes + ". Top allocation sites:\n" + topAllocations(recordingFile));
+    }
+
+    // Sampled allocation weight per class on this thread, largest first
+    private static String topAllocations(Path recordingFile) {
+        try {
+            Map<String, Long> weights = new HashMap<>();
+            String thread = Thread.currentThread().getName();
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+                if (event.getThread() != null && thread.equals(event.getThread().getJavaName())) {
+                    weights.merge(event.getClass("objectClass").getName(), event.getLong("weight"), Long::sum);
+                }
+            }
+            return weights.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(10)
+                    .map(entry -> "  " + entry.getKey() + ": " + entry.getValue() + " bytes")
+                    .collect(Collectors.joining("\n"));
+        } catch (Exception e) {
+            return "  (could not read " + recordingFile + ": " + e.getMessage() + ")";
+        }
+    }
+}
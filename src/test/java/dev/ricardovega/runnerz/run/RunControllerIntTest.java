@@ -14,7 +14,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT) // Runs the Spring Boot application with a random port for integration testing
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "runnerz.partitioning.enabled=true") // Runs the Spring Boot application with a random port for integration testing
 class RunControllerIntTest {
 
     @LocalServerPort
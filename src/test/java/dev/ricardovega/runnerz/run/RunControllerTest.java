@@ -1,12 +1,14 @@
 package dev.ricardovega.runnerz.run;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -14,17 +16,20 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(RunController.class) // Specifies that only the RunController and related components will be tested, using mock beans for the repository
+@Import({RunLookupCoalescer.class, RunOverlapGuard.class, SimpleMeterRegistry.class}) // Lookups and writes go through the coalescer and the overlap guard, with in-memory metrics
 class RunControllerTest {
 
     @Autowired
@@ -34,7 +39,7 @@ class RunControllerTest {
     ObjectMapper objectMapper; // Used for serializing and deserializing JSON content
 
     @MockBean
-    RunRepository repository; // Mocked repository to simulate database interactions
+    RunStorage repository; // Mocked storage engine to simulate database interactions
 
     private final List<Run> runs = new ArrayList<>(); // A list to hold mock run data
 
@@ -63,13 +68,52 @@ class RunControllerTest {
                 .andExpect(jsonPath("$.length()").value(runs.size())); // Asserts that the response contains the correct number of runs
     }
 
+    // Test case to check if only the requested fields are returned
+    @Test
+    void shouldFindAllRunsWithRequestedFields() throws Exception {
+        when(repository.findAll(EnumSet.of(RunField.ID, RunField.TITLE)))
+                .thenReturn(List.of(Map.of("id", 1, "title", "Monday Morning Run")));
+
+        mvc.perform(get("/api/runs").param("fields", "id, title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("Monday Morning Run")))
+                .andExpect(jsonPath("$[0].miles").doesNotExist()); // Asserts that other fields are left out
+    }
+
+    // Test case to check if unknown fields are rejected
+    @Test
+    void shouldRejectUnknownFields() throws Exception {
+        mvc.perform(get("/api/runs").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test case to check if a page of runs is fetched
+    @Test
+    void shouldFindPageOfRuns() throws Exception {
+        when(repository.findAll(0, 1)).thenReturn(runs);
+
+        mvc.perform(get("/api/runs").param("page", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title", is("Monday Morning Run")));
+    }
+
+    // Test case to check if pages outside the allowed range are rejected
+    @Test
+    void shouldRejectInvalidPage() throws Exception {
+        mvc.perform(get("/api/runs").param("page", "-1").param("size", "10"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/runs").param("page", "0").param("size", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
     // Test case to check if a specific run is fetched by its ID
     @Test
     void shouldFindOneRun() throws Exception {
         Run run = runs.get(0); // Retrieve the first run in the list
 
-        // Mocking the repository to return the run for any integer ID
-        when(repository.findById(ArgumentMatchers.anyInt())).thenReturn(Optional.of(run));
+        // Mocking the repository to return the run for any batch of IDs
+        when(repository.findAllById(ArgumentMatchers.anyCollection())).thenReturn(List.of(run));
 
         // Performing a GET request to /api/runs/1 and verifying the response content
         mvc.perform(get("/api/runs/1"))
@@ -92,6 +136,7 @@ class RunControllerTest {
     @Test
     void shouldCreateNewRun() throws Exception {
         var run = new Run(null,"test", LocalDateTime.now(), LocalDateTime.now(), 1, Location.INDOOR, null); // Create a new run instance
+        when(repository.create(ArgumentMatchers.any(Run.class))).thenReturn(run.withId(1)); // Mocking the storage to return the run with its new id
 
         // Performing a POST request to /api/runs with the run data as JSON in the request body
         mvc.perform(post("/api/runs")
@@ -114,14 +159,23 @@ class RunControllerTest {
                 .andExpect(status().isNoContent()); // Asserts that the status code is 204 No Content, indicating a successful update
     }
 
+    // Test case to check if updating a missing run returns a 404 Not Found status
+    @Test
+    void shouldNotUpdateMissingRun() throws Exception {
+        var run = new Run(null,"test", LocalDateTime.now(), LocalDateTime.now(), 1, Location.INDOOR, null);
+        doThrow(new RunNotFoundException()).when(repository).update(ArgumentMatchers.any(Run.class), ArgumentMatchers.eq(99));
+
+        mvc.perform(put("/api/runs/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(run)))
+                .andExpect(status().isNotFound());
+    }
+
     // Test case to check if a run can be deleted successfully
     @Test
     public void shouldDeleteRun() throws Exception {
-        // Mocking the repository to return true when checking if the run exists
-        when(repository.existsById(1)).thenReturn(true);
-
-        // Mocking the repository to do nothing when deleting a run
-        doNothing().when(repository).deleteById(1);
+        // Mocking the storage to do nothing when deleting a run
+        doNothing().when(repository).delete(1);
 
         // Performing a DELETE request to /api/runs/1 to delete the run with ID 1
         mvc.perform(delete("/api/runs/1")
@@ -0,0 +1,94 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunIntervalTreeTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 2, 5, 7, 0);
+
+    // Test case to check if only runs sharing some time with the interval are found
+    @Test
+    void shouldFindOverlappingRuns() {
+        RunIntervalTree tree = new RunIntervalTree();
+        tree.add(run(1, 0, 60));
+        tree.add(run(2, 90, 120));
+        tree.add(run(3, 30, 100));
+
+        assertEquals(List.of(1, 3), ids(tree.overlapping(MONDAY.plusMinutes(50), MONDAY.plusMinutes(80))));
+        assertEquals(List.of(1, 3, 2), ids(tree.overlapping(MONDAY, MONDAY.plusMinutes(120))));
+        assertTrue(tree.overlapping(MONDAY.plusMinutes(120), MONDAY.plusMinutes(180)).isEmpty()); // Touching is no overlap
+        assertTrue(tree.overlapping(MONDAY.minusMinutes(60), MONDAY).isEmpty());
+    }
+
+    // Test case to check if adding a run with an indexed id moves it instead of adding it twice
+    @Test
+    void shouldReplaceRunWithSameId() {
+        RunIntervalTree tree = new RunIntervalTree();
+        tree.add(run(1, 0, 60));
+        tree.add(run(1, 120, 180));
+
+        assertEquals(1, tree.size());
+        assertTrue(tree.overlapping(MONDAY, MONDAY.plusMinutes(60)).isEmpty());
+        assertEquals(List.of(1), ids(tree.overlapping(MONDAY.plusMinutes(150), MONDAY.plusMinutes(151))));
+    }
+
+    // Test case to check if removed runs are no longer found
+    @Test
+    void shouldRemoveRuns() {
+        RunIntervalTree tree = new RunIntervalTree();
+        tree.add(run(1, 0, 60));
+        tree.add(run(2, 30, 90));
+
+        assertTrue(tree.remove(1));
+        assertFalse(tree.remove(1));
+        assertEquals(List.of(2), ids(tree.overlapping(MONDAY, MONDAY.plusMinutes(90))));
+        assertNull(tree.get(1));
+    }
+
+    // Test case to check if random adds and removes give the same answers as a linear scan, with a balanced tree
+    @Test
+    void shouldMatchLinearScan() {
+        Random random = new Random(42);
+        RunIntervalTree tree = new RunIntervalTree();
+        List<Run> runs = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) {
+            int start = random.nextInt(100_000);
+            Run run = run(id, start, start + 1 + random.nextInt(300));
+            runs.add(run);
+            tree.add(run);
+        }
+        for (int id = 1; id <= 2_000; id += 3) {
+            tree.remove(id);
+        }
+        runs.removeIf(run -> run.id() % 3 == 1);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = MONDAY.plusMinutes(random.nextInt(100_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(500));
+            List<Integer> expected = runs.stream()
+                    .filter(run -> run.startedOn().isBefore(end) && run.completedOn().isAfter(start))
+                    .sorted(Comparator.comparing(Run::startedOn).thenComparing(Run::id))
+                    .map(Run::id)
+                    .toList();
+            assertEquals(expected, ids(tree.overlapping(start, end)));
+        }
+        assertEquals(runs.size(), tree.size());
+        assertTrue(tree.height() <= 1.45 * (Math.log(tree.size() + 2) / Math.log(2)), "Tree is not balanced: height " + tree.height());
+    }
+
+    private static Run run(int id, int startMinute, int endMinute) {
+        return new Run(id, "Run " + id, MONDAY.plusMinutes(startMinute), MONDAY.plusMinutes(endMinute), 3, Location.OUTDOOR, 0);
+    }
+
+    private static List<Integer> ids(List<Run> runs) {
+        return runs.stream().map(Run::id).toList();
+    }
+}
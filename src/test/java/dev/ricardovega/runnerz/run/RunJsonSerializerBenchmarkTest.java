@@ -0,0 +1,82 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Before/after comparison of the default and the fast Run serialization path.
+// Excluded from the normal build, run with: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+class RunJsonSerializerBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+
+    ObjectMapper defaultMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    ObjectMapper fastMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new SimpleModule().addSerializer(Run.class, new RunJsonSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 100_000})
+    void compareSerializers(int size) throws IOException {
+        List<Run> runs = runs(size);
+
+        double defaultMillis = measure(defaultMapper, runs);
+        double fastMillis = measure(fastMapper, runs);
+
+        byte[] json = fastMapper.writeValueAsBytes(runs);
+        System.out.printf("%,7d runs: default %.2f ms, fast %.2f ms (%.1fx), %,d bytes raw, %,d bytes gzip%n",
+                size, defaultMillis, fastMillis, defaultMillis / fastMillis, json.length, gzip(json).length);
+    }
+
+    // Average time in milliseconds to serialize the list, after a warm-up phase
+    private static double measure(ObjectMapper mapper, List<Run> runs) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.writeValueAsBytes(runs);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            mapper.writeValueAsBytes(runs);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Run> runs(int size) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 6, 0);
+        List<Run> runs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime startedOn = start.plusHours(i);
+            runs.add(new Run(i + 1, "Run " + i, startedOn, startedOn.plusMinutes(45), 1 + i % 20,
+                    i % 2 == 0 ? Location.INDOOR : Location.OUTDOOR, 0));
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,51 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RunJsonSerializerTest {
+
+    // Mapper configured like Spring Boot's default one
+    ObjectMapper defaultMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    // Same mapper with the fast Run serializer registered
+    ObjectMapper fastMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new SimpleModule().addSerializer(Run.class, new RunJsonSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    // Test case to check that the fast serializer writes the same properties and values as the default serializer
+    // Compared as trees: Jackson writes the renamed record components last, the fast serializer keeps declaration order
+    @Test
+    void shouldWriteSameJsonAsDefaultSerializer() throws Exception {
+        List<Run> runs = List.of(
+                new Run(1, "Noon Run", LocalDateTime.of(2024, 2, 20, 6, 5), LocalDateTime.of(2024, 2, 20, 10, 27), 24, Location.INDOOR, null),
+                new Run(2, "Evening \"Tempo\" Run", LocalDateTime.of(2024, 2, 22, 12, 16, 30, 500), LocalDateTime.of(2024, 2, 22, 14, 27), 6, Location.OUTDOOR, 3),
+                new Run(null, "Unsaved Run", LocalDateTime.of(2024, 3, 1, 3, 49), null, null, null, null));
+
+        assertEquals(defaultMapper.readTree(defaultMapper.writeValueAsString(runs)), defaultMapper.readTree(fastMapper.writeValueAsString(runs)));
+    }
+
+    // Test case to check that the fast output can still be read back into a Run
+    @Test
+    void shouldReadBackFastJson() throws Exception {
+        Run run = new Run(1, "Noon Run", LocalDateTime.of(2024, 2, 20, 6, 5), LocalDateTime.of(2024, 2, 20, 10, 27), 24, Location.INDOOR, null);
+
+        Run read = defaultMapper.readValue(fastMapper.writeValueAsString(run), Run.class);
+
+        assertEquals(run, read);
+    }
+}
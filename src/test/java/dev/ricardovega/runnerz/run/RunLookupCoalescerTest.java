@@ -0,0 +1,189 @@
+package dev.ricardovega.runnerz.run;
+
+import dev.ricardovega.runnerz.deadline.Deadline;
+import dev.ricardovega.runnerz.tracing.Span;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunLookupCoalescerTest {
+
+    private static final int CALLERS = 50;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger batchQueries = new AtomicInteger();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private CountingStorage storage;
+    private RunLookupCoalescer coalescer;
+
+    // Setup method to store runs 1 to 50 in an in-memory engine that counts its batch queries
+    @BeforeEach
+    void setUp() {
+        storage = new CountingStorage();
+        IntStream.rangeClosed(1, CALLERS).forEach(id -> storage.create(new Run(id, "Run " + id,
+                LocalDateTime.of(2024, 2, 1, 6, 0), LocalDateTime.of(2024, 2, 1, 7, 0), 3, Location.INDOOR, null)));
+        coalescer = new RunLookupCoalescer(storage, meterRegistry, true, Duration.ofMillis(20), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+        callers.shutdownNow();
+    }
+
+    // Test case to check if concurrent lookups share queries and every caller gets its own run
+    @Test
+    void shouldBatchConcurrentLookups() throws Exception {
+        storage.latency = Duration.ofMillis(20); // Keeps a query in flight while the other lookups arrive
+        List<Future<Optional<Run>>> results = IntStream.rangeClosed(1, CALLERS)
+                .mapToObj(id -> callers.submit(() -> coalescer.findById(id)))
+                .toList();
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertEquals(i + 1, results.get(i).get().orElseThrow().id());
+        }
+        assertTrue(batchQueries.get() < CALLERS, "Expected fewer queries than lookups, got " + batchQueries.get());
+        assertEquals(0, storage.singleLookups.get()); // Never falls back to one query per id
+        assertEquals(CALLERS, meterRegistry.get("runnerz.runs.lookup.batch.size").summary().totalAmount());
+        assertEquals(batchQueries.get(), meterRegistry.get("runnerz.runs.lookup.batch.size").summary().count());
+        assertEquals(CALLERS, meterRegistry.get("runnerz.runs.lookup.added.latency").timer().count());
+    }
+
+    // Test case to check if a full batch is sent without waiting for the window to close
+    @Test
+    void shouldSendFullBatchBeforeWindowCloses() throws Exception {
+        coalescer.shutdown();
+        coalescer = new RunLookupCoalescer(storage, meterRegistry, true, Duration.ofMinutes(1), 1);
+
+        assertEquals(7, coalescer.findById(7).orElseThrow().id()); // Would block for a minute otherwise
+        assertEquals(1, batchQueries.get());
+    }
+
+    // Test case to check if a lookup arriving when nothing is queued or in flight is sent without waiting for the window
+    @Test
+    void shouldSendLoneLookupWithoutWaiting() {
+        coalescer.shutdown();
+        coalescer = new RunLookupCoalescer(storage, meterRegistry, true, Duration.ofMinutes(1), 100);
+
+        Run run = assertTimeout(Duration.ofSeconds(5), () -> coalescer.findById(7).orElseThrow()); // Would block for a minute otherwise
+        assertEquals(7, run.id());
+        assertEquals(1, batchQueries.get());
+        assertEquals(1, meterRegistry.get("runnerz.runs.lookup.batch.size").summary().count());
+    }
+
+    // Test case to check if a batch query runs under the earliest deadline of its callers
+    @Test
+    void shouldQueryUnderEarliestDeadline() throws Exception {
+        coalescer.shutdown();
+        coalescer = new RunLookupCoalescer(storage, meterRegistry, true, Duration.ofMinutes(1), 2);
+        storage.gate = new CountDownLatch(1);
+
+        Future<Optional<Run>> first = callers.submit(() -> coalescer.findById(1)); // Sent right away, then held in flight
+        assertTrue(storage.started.await(5, TimeUnit.SECONDS));
+        Deadline late = Deadline.after(Duration.ofSeconds(20));
+        Deadline early = Deadline.after(Duration.ofSeconds(10));
+        Future<Optional<Run>> second = callers.submit(Deadline.propagate(late, () -> coalescer.findById(2)));
+        Future<Optional<Run>> third = callers.submit(Deadline.propagate(early, () -> coalescer.findById(3)));
+        assertEquals(2, second.get().orElseThrow().id()); // Answered by one batch while the first query is still held
+        assertEquals(3, third.get().orElseThrow().id());
+        storage.gate.countDown();
+
+        assertEquals(1, first.get().orElseThrow().id());
+        assertEquals(2, storage.deadlines.size());
+        assertNull(storage.deadlines.get(0)); // The lone lookup had no deadline
+        assertSame(early, storage.deadlines.get(1)); // The batch of two ran under the earlier one
+    }
+
+    // Test case to check if a missing id gives an empty result to its caller only
+    @Test
+    void shouldReturnEmptyForMissingId() throws Exception {
+        Future<Optional<Run>> missing = callers.submit(() -> coalescer.findById(99));
+        Future<Optional<Run>> present = callers.submit(() -> coalescer.findById(1));
+
+        assertTrue(missing.get().isEmpty());
+        assertTrue(present.get().isPresent());
+    }
+
+    // Test case to check if a failing batch query fails every caller in it
+    @Test
+    void shouldFailEveryCallerWhenQueryFails() {
+        storage.failure = new IllegalStateException("Database unavailable");
+
+        assertThrows(IllegalStateException.class, () -> coalescer.findById(1));
+    }
+
+    // Test case to check if the batch query runs under the span of the traced caller
+    @Test
+    void shouldTraceBatchUnderCaller() {
+        List<Span> exported = new CopyOnWriteArrayList<>();
+        try (Span request = Span.root(exported::add, "GET /api/runs/1", null, null)) {
+            coalescer.findById(1);
+
+            assertSame(request, storage.batchSpan);
+        }
+    }
+
+    // Test case to check if a disabled coalescer reads each run directly
+    @Test
+    void shouldLookUpDirectlyWhenDisabled() {
+        coalescer.shutdown();
+        coalescer = new RunLookupCoalescer(storage, meterRegistry, false, Duration.ofMillis(20), 100);
+
+        assertEquals(1, coalescer.findById(1).orElseThrow().id());
+        assertEquals(0, batchQueries.get());
+        assertEquals(1, storage.singleLookups.get());
+    }
+
+    private class CountingStorage extends InMemoryRunRepository {
+        private final AtomicInteger singleLookups = new AtomicInteger();
+        private volatile RuntimeException failure;
+        private volatile Span batchSpan; // Span current while the last batch was read
+        private volatile Duration latency = Duration.ZERO;
+        private volatile CountDownLatch gate; // Holds the first batch query until counted down
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final List<Deadline> deadlines = new CopyOnWriteArrayList<>(); // Deadline current during each batch query
+
+        @Override
+        public Optional<Run> findById(Integer id) {
+            singleLookups.incrementAndGet();
+            return super.findById(id);
+        }
+
+        @Override
+        public List<Run> findAllById(Collection<Integer> ids) {
+            boolean firstQuery = batchQueries.incrementAndGet() == 1;
+            batchSpan = Span.current();
+            deadlines.add(Deadline.current());
+            started.countDown();
+            try {
+                if (firstQuery && gate != null) {
+                    gate.await();
+                }
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return ids.stream().map(super::findById).flatMap(Optional::stream).toList(); // Not through the counted findById
+        }
+    }
+}
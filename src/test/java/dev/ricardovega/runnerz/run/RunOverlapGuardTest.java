@@ -0,0 +1,246 @@
+package dev.ricardovega.runnerz.run;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunOverlapGuardTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 2, 5, 7, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CountingStorage storage;
+
+    // Setup method to store one run from 7:00 to 8:00
+    @BeforeEach
+    void setUp() {
+        storage = new CountingStorage();
+        storage.create(run(1, "Morning Run", 0, 60, 5));
+    }
+
+    // Test case to check if an overlapping run is rejected and not stored
+    @Test
+    void shouldRejectOverlappingRun() {
+        RunOverlapGuard guard = guard("reject");
+
+        RunOverlapException e = assertThrows(RunOverlapException.class, () -> guard.create(run(null, "Watch Upload", 30, 90, 5)));
+
+        assertTrue(e.getMessage().contains("run 1"));
+        assertEquals(1, storage.count());
+        assertEquals(1.0, meterRegistry.get("runnerz.runs.overlaps").counter().count());
+    }
+
+    // Test case to check if runs that only touch are both stored
+    @Test
+    void shouldAcceptAdjacentRun() {
+        RunOverlapGuard guard = guard("reject");
+
+        Run stored = guard.create(run(null, "Evening Run", 60, 120, 3));
+
+        assertNotNull(stored.id());
+        assertEquals(2, storage.count());
+    }
+
+    // Test case to check if an overlapping run is merged into the stored run
+    @Test
+    void shouldMergeOverlappingRun() {
+        RunOverlapGuard guard = guard("merge");
+
+        Run merged = guard.create(run(null, "Watch Upload", 30, 90, 7));
+
+        assertEquals(1, storage.count());
+        assertEquals(1, merged.id());
+        Run stored = storage.findById(1).orElseThrow();
+        assertAll(
+                () -> assertEquals("Morning Run", stored.title()), // The stored run keeps its title
+                () -> assertEquals(MONDAY, stored.startedOn()),
+                () -> assertEquals(MONDAY.plusMinutes(90), stored.completedOn()),
+                () -> assertEquals(7, stored.miles()),
+                () -> assertEquals(stored, merged));
+    }
+
+    // Test case to check if a flagged overlap is stored and counted
+    @Test
+    void shouldStoreFlaggedRun() {
+        RunOverlapGuard guard = guard("flag");
+
+        guard.create(run(null, "Watch Upload", 30, 90, 5));
+
+        assertEquals(2, storage.count());
+        assertEquals(1.0, meterRegistry.get("runnerz.runs.overlaps").counter().count());
+    }
+
+    // Test case to check if a run deleted behind the guard's back no longer blocks new runs
+    @Test
+    void shouldIgnoreRunsDeletedElsewhere() {
+        RunOverlapGuard guard = guard("reject");
+        guard.create(run(null, "Evening Run", 600, 660, 3)); // Loads the index
+
+        storage.delete(1); // E.g. a purge, which does not go through the guard
+
+        assertNotNull(guard.create(run(null, "Watch Upload", 30, 90, 5)).id());
+    }
+
+    // Test case to check if updates and deletes through the guard keep the index current
+    @Test
+    void shouldFollowUpdatesAndDeletes() {
+        RunOverlapGuard guard = guard("reject");
+        Run evening = guard.create(run(null, "Evening Run", 600, 660, 3));
+
+        guard.update(run(null, "Evening Run", 120, 180, 3), evening.id());
+        assertThrows(RunOverlapException.class, () -> guard.create(run(null, "Late Morning Run", 150, 160, 1)));
+
+        guard.delete(evening.id());
+        assertNotNull(guard.create(run(null, "Late Morning Run", 150, 160, 1)).id());
+    }
+
+    // Test case to check if an update that moves a run onto another run is rejected and not stored
+    @Test
+    void shouldRejectUpdateOntoOtherRun() {
+        RunOverlapGuard guard = guard("reject");
+        Run evening = guard.create(run(null, "Evening Run", 600, 660, 3));
+
+        assertThrows(RunOverlapException.class, () -> guard.update(run(null, "Evening Run", 30, 90, 3), evening.id()));
+
+        assertEquals(MONDAY.plusMinutes(600), storage.findById(evening.id()).orElseThrow().startedOn());
+        assertNotNull(guard.create(run(null, "Late Morning Run", 150, 160, 1)).id()); // The index still has it in the evening
+    }
+
+    // Test case to check if a run can be updated to times overlapping its own
+    @Test
+    void shouldAcceptUpdateOverlappingItself() {
+        RunOverlapGuard guard = guard("reject");
+
+        guard.update(run(null, "Morning Run", 30, 90, 6), 1);
+
+        assertEquals(MONDAY.plusMinutes(90), storage.findById(1).orElseThrow().completedOn());
+    }
+
+    // Test case to check if an overlapping update is stored and counted under the merge policy
+    @Test
+    void shouldFlagUpdateUnderMergePolicy() {
+        RunOverlapGuard guard = guard("merge");
+        Run evening = guard.create(run(null, "Evening Run", 600, 660, 3));
+
+        guard.update(run(null, "Evening Run", 30, 90, 3), evening.id());
+
+        assertEquals(2, storage.count()); // Nothing is merged away
+        assertEquals(1.0, meterRegistry.get("runnerz.runs.overlaps").counter().count());
+    }
+
+    // Test case to check if the overlapping runs are confirmed with one query instead of one per run
+    @Test
+    void shouldConfirmCandidatesWithOneQuery() {
+        storage.create(run(2, "Tempo Run", 60, 120, 4));
+        storage.create(run(3, "Cool Down", 120, 180, 1));
+        RunOverlapGuard guard = guard("flag");
+        storage.singleLookups.set(0);
+
+        guard.create(run(null, "Watch Upload", 30, 150, 9));
+
+        assertEquals(0, storage.singleLookups.get());
+        assertEquals(1, storage.batchLookups.get());
+        assertEquals(1.0, meterRegistry.get("runnerz.runs.overlaps").counter().count());
+    }
+
+    // Test case to check if a bulk import with an overlap stores nothing under the reject policy
+    @Test
+    void shouldRejectWholeImport() {
+        RunOverlapGuard guard = guard("reject");
+
+        assertThrows(RunOverlapException.class, () -> guard.saveAll(List.of(
+                run(null, "Tuesday Run", 1_440, 1_500, 4),
+                run(null, "Tuesday Run Again", 1_450, 1_510, 4)))); // Overlaps the previous run in the same import
+
+        assertEquals(1, storage.count());
+    }
+
+    // Test case to check if a bulk import merges overlaps with stored runs and with each other
+    @Test
+    void shouldMergeImportedRuns() {
+        RunOverlapGuard guard = guard("merge");
+
+        guard.saveAll(List.of(
+                run(null, "Watch Upload", 30, 90, 5),
+                run(null, "Tuesday Run", 1_440, 1_500, 4),
+                run(null, "Tuesday Run Again", 1_450, 1_510, 6)));
+
+        assertEquals(2, storage.count());
+        assertEquals(MONDAY.plusMinutes(90), storage.findById(1).orElseThrow().completedOn());
+        Run tuesday = storage.findAll().get(1);
+        assertAll(
+                () -> assertEquals("Tuesday Run", tuesday.title()),
+                () -> assertEquals(MONDAY.plusMinutes(1_510), tuesday.completedOn()),
+                () -> assertEquals(6, tuesday.miles()));
+
+        assertThrows(RunOverlapException.class, () -> guard("reject").create(run(null, "Late Tuesday Run", 1_505, 1_520, 1)));
+    }
+
+    // Test case to check if a run is checked against a run that started on the day before
+    @Test
+    void shouldRejectOverlapAcrossMidnight() {
+        RunOverlapGuard guard = guard("reject");
+        guard.create(run(null, "Night Run", 1_000, 1_480, 10)); // Monday 23:40 to Tuesday 7:40
+
+        assertThrows(RunOverlapException.class, () -> guard.create(run(null, "Watch Upload", 1_450, 1_470, 2)));
+    }
+
+    // Test case to check if days dropped from the index are read from storage again
+    @Test
+    void shouldReloadEvictedDays() {
+        RunOverlapGuard guard = guard("reject", 1);
+        guard.create(run(null, "Next Week Run", 10_080, 10_140, 3)); // Only the days of this run's window are kept
+
+        assertThrows(RunOverlapException.class, () -> guard.create(run(null, "Watch Upload", 30, 90, 5)));
+        assertThrows(RunOverlapException.class, () -> guard.create(run(null, "Next Week Upload", 10_100, 10_120, 3)));
+    }
+
+    // Test case to check if a disabled guard stores overlapping runs without checking
+    @Test
+    void shouldNotCheckWhenDisabled() {
+        RunOverlapGuard guard = new RunOverlapGuard(storage, meterRegistry, false, "reject", Duration.ofHours(48), 400);
+
+        guard.create(run(null, "Watch Upload", 30, 90, 5));
+
+        assertEquals(2, storage.count());
+    }
+
+    private RunOverlapGuard guard(String policy) {
+        return guard(policy, 400);
+    }
+
+    private RunOverlapGuard guard(String policy, int cachedDays) {
+        return new RunOverlapGuard(storage, meterRegistry, true, policy, Duration.ofHours(48), cachedDays);
+    }
+
+    private static Run run(Integer id, String title, int startMinute, int endMinute, int miles) {
+        return new Run(id, title, MONDAY.plusMinutes(startMinute), MONDAY.plusMinutes(endMinute), miles, Location.OUTDOOR, null);
+    }
+
+    // In-memory engine that counts the lookups by id
+    private static class CountingStorage extends InMemoryRunRepository {
+        private final AtomicInteger singleLookups = new AtomicInteger();
+        private final AtomicInteger batchLookups = new AtomicInteger();
+
+        @Override
+        public Optional<Run> findById(Integer id) {
+            singleLookups.incrementAndGet();
+            return super.findById(id);
+        }
+
+        @Override
+        public List<Run> findAllById(Collection<Integer> ids) {
+            batchLookups.incrementAndGet();
+            return ids.stream().map(super::findById).flatMap(Optional::stream).toList();
+        }
+    }
+}
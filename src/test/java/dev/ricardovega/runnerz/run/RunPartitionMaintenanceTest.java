@@ -0,0 +1,81 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+// The PostgreSQL statements are checked against a mocked JdbcClient
+class RunPartitionMaintenanceTest {
+
+    JdbcClient jdbcClient = mock(JdbcClient.class, RETURNS_DEEP_STUBS);
+    RunShards.Shard shard;
+    RunPartitionMaintenance maintenance;
+
+    // Setup method to start without any partition
+    @BeforeEach
+    void setUp() {
+        shard = new RunShards.Shard(0, jdbcClient, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        maintenance = new RunPartitionMaintenance(new RunShards(List.of(shard)), 2);
+        when(jdbcClient.sql("SELECT to_regclass(?) IS NOT NULL").param(any()).query(Boolean.class).single()).thenReturn(false);
+    }
+
+    // Test case to check if a missing partition is created with its id index, filled from run_default and attached
+    @Test
+    void shouldCreateMissingPartition() {
+        maintenance.ensurePartition(shard, YearMonth.of(2024, 3));
+
+        InOrder inOrder = inOrder(jdbcClient);
+        inOrder.verify(jdbcClient).sql("CREATE TABLE run_y2024m03 (LIKE run INCLUDING DEFAULTS)");
+        inOrder.verify(jdbcClient).sql(startsWith("INSERT INTO run_y2024m03 SELECT * FROM run_default"));
+        inOrder.verify(jdbcClient).sql(startsWith("DELETE FROM run_default"));
+        inOrder.verify(jdbcClient).sql("CREATE UNIQUE INDEX run_y2024m03_id ON run_y2024m03 (id)");
+        inOrder.verify(jdbcClient).sql("ALTER TABLE run ATTACH PARTITION run_y2024m03 FOR VALUES FROM ('2024-03-01 00:00:00.0') TO ('2024-04-01 00:00:00.0')");
+    }
+
+    // Test case to check if an existing partition is left alone
+    @Test
+    void shouldSkipExistingPartition() {
+        when(jdbcClient.sql("SELECT to_regclass(?) IS NOT NULL").param(any()).query(Boolean.class).single()).thenReturn(true);
+
+        maintenance.ensurePartition(shard, YearMonth.of(2024, 3));
+
+        verify(jdbcClient, never()).sql(startsWith("CREATE TABLE"));
+    }
+
+    // Test case to check if partitions are created for months in run_default and for the months ahead
+    @Test
+    void shouldCreatePartitionsForDefaultRowsAndMonthsAhead() {
+        when(jdbcClient.sql(contains("date_trunc")).query(Timestamp.class).list())
+                .thenReturn(List.of(Timestamp.valueOf(LocalDateTime.of(2023, 5, 1, 0, 0))));
+
+        maintenance.maintain();
+
+        for (YearMonth month : List.of(YearMonth.of(2023, 5), YearMonth.now(), YearMonth.now().plusMonths(1), YearMonth.now().plusMonths(2))) {
+            String partition = RunPartitionMaintenance.partitionName(month);
+            verify(jdbcClient).sql("CREATE TABLE " + partition + " (LIKE run INCLUDING DEFAULTS)");
+        }
+        verify(jdbcClient, times(4)).sql(startsWith("CREATE TABLE"));
+    }
+
+    // Test case to check if attached partitions are listed oldest first
+    @Test
+    void shouldListPartitionsOldestFirst() {
+        when(jdbcClient.sql(contains("pg_inherits")).query(String.class).list()).thenReturn(List.of("run_y2024m03", "run_y2023m12"));
+
+        assertEquals(List.of(YearMonth.of(2023, 12), YearMonth.of(2024, 3)), maintenance.partitions(shard));
+    }
+}
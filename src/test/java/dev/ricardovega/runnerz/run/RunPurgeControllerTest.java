@@ -0,0 +1,76 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RunPurgeController.class)
+class RunPurgeControllerTest {
+
+    private static final LocalDateTime BEFORE = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    RunPurgeService purgeService;
+
+    // Test case to check if a purge is accepted and points to its progress
+    @Test
+    void shouldStartPurge() throws Exception {
+        when(purgeService.start(BEFORE, Location.INDOOR))
+                .thenReturn(new RunPurge("job-1", BEFORE, Location.INDOOR, RunPurge.Status.QUEUED, 0, 0, null, null, null));
+
+        mvc.perform(delete("/api/runs").param("before", "2024-02-01T00:00:00").param("location", "INDOOR"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/runs/purges/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    // Test case to check if a cutoff that is not a date-time is a bad request
+    @Test
+    void shouldRejectInvalidCutoff() throws Exception {
+        mvc.perform(delete("/api/runs").param("before", "last year"))
+                .andExpect(status().isBadRequest());
+
+        verify(purgeService, never()).start(any(), any());
+    }
+
+    // Test case to check if the progress of a purge is returned
+    @Test
+    void shouldFindPurge() throws Exception {
+        when(purgeService.find("job-1")).thenReturn(Optional.of(new RunPurge("job-1", BEFORE, null, RunPurge.Status.COMPLETED,
+                20, 7, Instant.parse("2024-03-01T10:00:00Z"), Instant.parse("2024-03-01T10:00:02Z"), null)));
+
+        mvc.perform(get("/api/runs/purges/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.deleted").value(20))
+                .andExpect(jsonPath("$.chunks").value(7));
+    }
+
+    // Test case to check if an unknown purge is not found
+    @Test
+    void shouldNotFindUnknownPurge() throws Exception {
+        when(purgeService.find("unknown")).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/runs/purges/unknown"))
+                .andExpect(status().isNotFound());
+    }
+}
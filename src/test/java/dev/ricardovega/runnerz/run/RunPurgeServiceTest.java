@@ -0,0 +1,125 @@
+package dev.ricardovega.runnerz.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ricardovega.runnerz.track.RunTrackRepository;
+import dev.ricardovega.runnerz.track.TrackIngestor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checks chunked purges against two embedded H2 databases used as shards
+class RunPurgeServiceTest {
+
+    RunShards shards;
+    RunRollupRepository rollupRepository;
+    JdbcClientRunRepository repository;
+    RunPurgeService purgeService;
+
+    // Setup method to store 20 runs in January and 5 in March, alternating locations
+    @BeforeEach
+    void setUp() {
+        shards = RunShards.of(EmbeddedRunDatabases.create(2));
+        rollupRepository = new RunRollupRepository(shards);
+        repository = new JdbcClientRunRepository(shards, new RunIdAllocator(shards.primary().jdbcClient(), 50), rollupRepository);
+        purgeService = new RunPurgeService(repository, 3, Duration.ZERO);
+
+        List<Run> runs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            runs.add(run(LocalDateTime.of(2024, 1, 1 + i, 7, 0), i % 2 == 0 ? Location.INDOOR : Location.OUTDOOR));
+        }
+        for (int i = 0; i < 5; i++) {
+            runs.add(run(LocalDateTime.of(2024, 3, 1 + i, 7, 0), Location.OUTDOOR));
+        }
+        repository.saveAll(runs);
+    }
+
+    // Test case to check if every run before the cutoff is deleted in several chunks
+    @Test
+    void shouldPurgeRunsStartedBefore() throws InterruptedException {
+        RunPurge purge = await(purgeService.start(LocalDateTime.of(2024, 2, 1, 0, 0), null));
+
+        assertEquals(RunPurge.Status.COMPLETED, purge.status());
+        assertEquals(20, purge.deleted());
+        assertTrue(purge.chunks() >= 7, "Expected chunks of at most 3 runs, got " + purge.chunks());
+        assertEquals(5, repository.count());
+        assertEquals(List.of(new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 3, 1), Location.OUTDOOR, 5, 25)),
+                rollupRepository.find(RollupPeriod.MONTH, null, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+    }
+
+    // Test case to check if the tracks of purged runs are deleted with them
+    @Test
+    void shouldPurgeTracks() throws Exception {
+        RunTrackRepository trackRepository = new RunTrackRepository(shards);
+        TrackIngestor.IngestedTrack track = new TrackIngestor(new ObjectMapper()).ingest(new ByteArrayInputStream("""
+                [{"lat":40.0,"lng":-73.9,"time":"2024-01-01T07:00:00Z"},{"lat":40.001,"lng":-73.9,"time":"2024-01-01T07:00:30Z"}]"""
+                .getBytes(StandardCharsets.UTF_8)));
+        List<Run> runs = repository.findAll();
+        Run january = runs.get(0);
+        Run march = runs.get(runs.size() - 1);
+        trackRepository.save(january.id(), track);
+        trackRepository.save(march.id(), track);
+
+        await(purgeService.start(LocalDateTime.of(2024, 2, 1, 0, 0), null));
+
+        assertTrue(trackRepository.findSummary(january.id()).isEmpty());
+        assertTrue(trackRepository.findSummary(march.id()).isPresent());
+    }
+
+    // Test case to check if a purge can be limited to one location
+    @Test
+    void shouldPurgeOnlyGivenLocation() throws InterruptedException {
+        RunPurge purge = await(purgeService.start(LocalDateTime.of(2024, 2, 1, 0, 0), Location.INDOOR));
+
+        assertEquals(10, purge.deleted());
+        assertEquals(15, repository.count());
+        assertTrue(repository.findByLocation("INDOOR").isEmpty());
+    }
+
+    // Test case to check if a purge stops after its current chunk on shutdown and queued purges do not start
+    @Test
+    void shouldStopAfterChunkOnShutdown() throws InterruptedException {
+        RunPurgeService slow = new RunPurgeService(repository, 3, Duration.ofMillis(200));
+        RunPurge running = slow.start(LocalDateTime.of(2024, 2, 1, 0, 0), null);
+        RunPurge queued = slow.start(LocalDateTime.of(2024, 4, 1, 0, 0), null);
+        Thread.sleep(100); // The first chunk is deleted, the purge pauses
+
+        slow.shutdown();
+
+        RunPurge stopped = slow.find(running.id()).orElseThrow();
+        assertEquals(RunPurge.Status.FAILED, stopped.status());
+        assertEquals("Stopped at shutdown", stopped.error());
+        assertEquals(25 - stopped.deleted(), repository.count());
+        assertEquals("Stopped at shutdown", slow.find(queued.id()).orElseThrow().error());
+    }
+
+    // Test case to check if unknown jobs are not found
+    @Test
+    void shouldNotFindUnknownPurge() {
+        assertTrue(purgeService.find("unknown").isEmpty());
+    }
+
+    private RunPurge await(RunPurge started) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            RunPurge purge = purgeService.find(started.id()).orElseThrow();
+            if (purge.status() == RunPurge.Status.COMPLETED || purge.status() == RunPurge.Status.FAILED) {
+                return purge;
+            }
+            Thread.sleep(50);
+        }
+        fail("Purge " + started.id() + " did not finish");
+        return null;
+    }
+
+    private static Run run(LocalDateTime startedOn, Location location) {
+        return new Run(null, "Run", startedOn, startedOn.plusHours(1), 5, location, null);
+    }
+}
@@ -0,0 +1,146 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+// Checks that rollups follow run writes, using two embedded H2 databases as shards
+class RunRollupRepositoryTest {
+
+    RunShards shards;
+    RunRollupRepository rollupRepository;
+    JdbcClientRunRepository repository;
+
+    // Setup method to store four runs over two months and both locations
+    @BeforeEach
+    void setUp() {
+        shards = RunShards.of(EmbeddedRunDatabases.create(2));
+        rollupRepository = new RunRollupRepository(shards);
+        repository = new JdbcClientRunRepository(shards, new RunIdAllocator(shards.primary().jdbcClient(), 50), rollupRepository);
+
+        repository.saveAll(List.of(
+                run(LocalDateTime.of(2024, 2, 5, 7, 0), 5, Location.OUTDOOR), // Monday
+                run(LocalDateTime.of(2024, 2, 7, 7, 0), 3, Location.OUTDOOR), // Wednesday, same week
+                run(LocalDateTime.of(2024, 2, 20, 7, 0), 10, Location.INDOOR),
+                run(LocalDateTime.of(2024, 3, 1, 7, 0), 8, Location.OUTDOOR)));
+    }
+
+    // Test case to check if monthly totals are summed over shards
+    @Test
+    void shouldRollUpByMonth() {
+        List<RunRollup> rollups = rollupRepository.find(RollupPeriod.MONTH, null, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+
+        assertEquals(List.of(
+                new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 2, 1), Location.INDOOR, 1, 10),
+                new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 2, 1), Location.OUTDOOR, 2, 8),
+                new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 3, 1), Location.OUTDOOR, 1, 8)), rollups);
+    }
+
+    // Test case to check if weekly totals start on Monday and can be filtered by location
+    @Test
+    void shouldRollUpByWeekForOneLocation() {
+        List<RunRollup> rollups = rollupRepository.find(RollupPeriod.WEEK, Location.OUTDOOR, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 12));
+
+        assertEquals(List.of(new RunRollup(RollupPeriod.WEEK, LocalDate.of(2024, 2, 5), Location.OUTDOOR, 2, 8)), rollups);
+    }
+
+    // Test case to check if updates and deletes move miles between rollups
+    @Test
+    void shouldFollowUpdatesAndDeletes() {
+        Run march = repository.findAllStartedBetween(LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 4, 1, 0, 0)).get(0);
+        repository.update(new Run(march.id(), march.title(), march.startedOn(), march.completedOn(), 12, Location.INDOOR, null), march.id());
+
+        Run indoorFebruary = repository.findByLocation("INDOOR").stream()
+                .filter(run -> run.startedOn().getMonthValue() == 2)
+                .findFirst()
+                .orElseThrow();
+        repository.delete(indoorFebruary.id());
+
+        List<RunRollup> rollups = rollupRepository.find(RollupPeriod.MONTH, Location.INDOOR, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+        assertEquals(List.of(new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 3, 1), Location.INDOOR, 1, 12)), rollups);
+    }
+
+    // Test case to check if a rebuild from the run table gives the same totals as the incremental updates
+    @Test
+    void shouldRebuildSameTotals() {
+        List<RunRollup> incremental = rollupRepository.find(RollupPeriod.WEEK, null, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+        shards.all().forEach(shard -> shard.jdbcClient().sql("DELETE FROM run_rollup").update());
+
+        shards.all().forEach(rollupRepository::rebuild);
+
+        assertEquals(incremental, rollupRepository.find(RollupPeriod.WEEK, null, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+    }
+
+    // Test case to check if a rebuild drops periods without runs but keeps the archived ones before the oldest run
+    @Test
+    void shouldDropStalePeriodsOnRebuild() {
+        shards.all().forEach(shard -> {
+            shard.jdbcClient().sql("INSERT INTO run_rollup(period, period_start, location, run_count, miles) VALUES('WEEK', ?, 'INDOOR', 1, 4)")
+                    .param(LocalDate.of(2024, 2, 12)) // No runs that week
+                    .update();
+            shard.jdbcClient().sql("INSERT INTO run_rollup(period, period_start, location, run_count, miles) VALUES('MONTH', ?, 'INDOOR', 2, 9)")
+                    .param(LocalDate.of(2023, 1, 1)) // Archived
+                    .update();
+        });
+
+        shards.all().forEach(rollupRepository::rebuild);
+
+        assertTrue(rollupRepository.find(RollupPeriod.WEEK, Location.INDOOR, LocalDate.of(2024, 2, 12), LocalDate.of(2024, 2, 19)).isEmpty());
+        assertEquals(List.of(new RunRollup(RollupPeriod.MONTH, LocalDate.of(2023, 1, 1), Location.INDOOR, 4, 18)),
+                rollupRepository.find(RollupPeriod.MONTH, null, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1)));
+    }
+
+    // Test case to check if a rebuild keeps the totals of a period whose earlier runs were archived
+    @Test
+    void shouldKeepPeriodOfArchivedRunsOnRebuild() {
+        RunShards single = RunShards.of(EmbeddedRunDatabases.create(1));
+        RunRollupRepository rollups = new RunRollupRepository(single);
+        new JdbcClientRunRepository(single, new RunIdAllocator(single.primary().jdbcClient(), 50), rollups).saveAll(List.of(
+                run(LocalDateTime.of(2024, 1, 31, 7, 0), 4, Location.OUTDOOR), // Wednesday, in the week of Monday January 29
+                run(LocalDateTime.of(2024, 2, 2, 7, 0), 6, Location.OUTDOOR), // Same week
+                run(LocalDateTime.of(2024, 2, 5, 7, 0), 5, Location.OUTDOOR)));
+        single.primary().jdbcClient().sql("DELETE FROM run WHERE started_on < ?") // January archived, rollups are left alone
+                .param(LocalDateTime.of(2024, 2, 1, 0, 0))
+                .update();
+
+        rollups.rebuild(single.primary());
+
+        assertEquals(List.of(
+                new RunRollup(RollupPeriod.WEEK, LocalDate.of(2024, 1, 29), Location.OUTDOOR, 2, 10), // Still counts the archived run
+                new RunRollup(RollupPeriod.WEEK, LocalDate.of(2024, 2, 5), Location.OUTDOOR, 1, 5)),
+                rollups.find(RollupPeriod.WEEK, null, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+        assertEquals(List.of(
+                new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 1, 1), Location.OUTDOOR, 1, 4),
+                new RunRollup(RollupPeriod.MONTH, LocalDate.of(2024, 2, 1), Location.OUTDOOR, 2, 11)),
+                rollups.find(RollupPeriod.MONTH, null, LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+    }
+
+    // Test case to check if PostgreSQL shards get INSERT ... ON CONFLICT instead of MERGE
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldUpsertWithOnConflictOnPostgres() {
+        JdbcClient jdbcClient = mock(JdbcClient.class, RETURNS_DEEP_STUBS);
+        when(jdbcClient.sql("SELECT 1").query(any(ResultSetExtractor.class))).thenReturn("PostgreSQL");
+        RunShards.Shard shard = new RunShards.Shard(0, jdbcClient, mock(TransactionTemplate.class));
+
+        new RunRollupRepository(new RunShards(List.of(shard))).add(shard, run(LocalDateTime.of(2024, 2, 5, 7, 0), 5, Location.OUTDOOR));
+
+        verify(jdbcClient, times(RollupPeriod.values().length)).sql(contains("ON CONFLICT (period, period_start, location)"));
+        verify(jdbcClient, never()).sql(contains("MERGE"));
+    }
+
+    private static Run run(LocalDateTime startedOn, int miles, Location location) {
+        return new Run(null, "Run", startedOn, startedOn.plusHours(1), miles, location, null);
+    }
+}
@@ -0,0 +1,122 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+// Runs the same workload against every storage engine, to choose an engine per deployment.
+// The database engines share one embedded H2 database, which is emptied before each engine runs.
+// Excluded from the normal build, run with: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+@DataJdbcTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnerz-storage-benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.schema-locations=classpath:embedded-schema.sql",
+        "runnerz.storage.engine=spring-data"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SpringDataRunStorage.class, RunIdAllocator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every engine commits, as it would in production
+class RunStorageBenchmarkTest {
+
+    private static final int RUNS = 5_000;
+    private static final int LOOKUPS = 20_000;
+    private static final int LISTINGS = 20;
+    private static final int UPDATES = 2_000;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    JdbcClient jdbcClient;
+
+    @Autowired
+    SpringDataRunStorage springDataRunStorage;
+
+    @Test
+    void compareEngines() {
+        Map<String, Supplier<RunStorage>> engines = new LinkedHashMap<>();
+        engines.put("memory", InMemoryRunRepository::new);
+        engines.put("jdbc", () -> {
+            RunShards shards = RunShards.of(List.of(dataSource));
+            return new JdbcClientRunRepository(shards, new RunIdAllocator(jdbcClient, 50), new RunRollupRepository(shards));
+        });
+        engines.put("spring-data", () -> springDataRunStorage);
+
+        System.out.printf("%-12s %10s %10s %10s %10s %10s%n", "engine", "create", "findById", "findAll", "fields", "update");
+        for (int round = 0; round < 2; round++) { // The first round only warms up
+            for (Map.Entry<String, Supplier<RunStorage>> engine : engines.entrySet()) {
+                jdbcClient.sql("DELETE FROM run").update();
+                jdbcClient.sql("DELETE FROM run_rollup").update();
+                Map<String, Double> millis = workload(engine.getValue().get());
+                if (round == 1) {
+                    System.out.printf("%-12s %8.1f ms %8.1f ms %8.1f ms %8.1f ms %8.1f ms%n", engine.getKey(),
+                            millis.get("create"), millis.get("findById"), millis.get("findAll"), millis.get("fields"), millis.get("update"));
+                }
+            }
+        }
+    }
+
+    // Total time per operation type over the whole workload
+    private static Map<String, Double> workload(RunStorage storage) {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, Double> millis = new LinkedHashMap<>();
+
+        List<Integer> ids = new ArrayList<>(RUNS);
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            LocalDateTime startedOn = LocalDateTime.of(2024, 1, 1, 6, 0).plusHours(i);
+            ids.add(storage.create(new Run(null, "Run " + i, startedOn, startedOn.plusMinutes(45), 1 + i % 20,
+                    i % 2 == 0 ? Location.INDOOR : Location.OUTDOOR, null)).id());
+        }
+        millis.put("create", elapsed(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            storage.findById(ids.get(random.nextInt(RUNS))).orElseThrow();
+        }
+        millis.put("findById", elapsed(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < LISTINGS; i++) {
+            storage.findAll();
+        }
+        millis.put("findAll", elapsed(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < LISTINGS; i++) {
+            storage.findAll(EnumSet.of(RunField.ID, RunField.TITLE, RunField.MILES));
+        }
+        millis.put("fields", elapsed(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Integer id = ids.get(random.nextInt(RUNS));
+            Run run = storage.findById(id).orElseThrow();
+            storage.update(new Run(id, run.title(), run.startedOn(), run.completedOn(), run.miles() + 1, run.location(), run.version()), id);
+        }
+        millis.put("update", elapsed(start));
+        return millis;
+    }
+
+    private static double elapsed(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+}
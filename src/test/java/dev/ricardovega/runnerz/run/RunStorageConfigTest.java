@@ -0,0 +1,30 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunStorageConfigTest {
+
+    // Test case to check if every engine starts without jdbc-only features
+    @Test
+    void shouldAcceptEveryEngine() {
+        RunStorageConfig.ENGINES.forEach(engine -> assertDoesNotThrow(() -> RunStorageConfig.validate(engine, List.of(), false)));
+        assertDoesNotThrow(() -> RunStorageConfig.validate("jdbc", List.of("jdbc:postgresql://shard1/runnerz"), true));
+    }
+
+    // Test case to check if settings only the jdbc engine supports are rejected for the others
+    @Test
+    void shouldRejectJdbcOnlySettingsForOtherEngines() {
+        assertThrows(IllegalStateException.class, () -> RunStorageConfig.validate("spring-data", List.of("jdbc:postgresql://shard1/runnerz"), false));
+        assertThrows(IllegalStateException.class, () -> RunStorageConfig.validate("memory", List.of(), true));
+    }
+
+    // Test case to check if a misspelled engine is rejected rather than falling back to jdbc
+    @Test
+    void shouldRejectUnknownEngine() {
+        assertThrows(IllegalStateException.class, () -> RunStorageConfig.validate("postgres", List.of(), false));
+    }
+}
@@ -0,0 +1,163 @@
+package dev.ricardovega.runnerz.run;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Semantics every RunStorage engine must share. Each engine has a subclass that supplies an empty storage.
+// Explicit ids start at 10_000 so they never collide with ids the engine hands out itself.
+abstract class RunStorageConformanceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 2, 5, 7, 0);
+
+    RunStorage storage;
+
+    // An engine with no runs stored
+    abstract RunStorage emptyStorage();
+
+    // Setup method to store three runs with explicit ids, out of id order
+    @BeforeEach
+    void setUp() {
+        storage = emptyStorage();
+        storage.saveAll(List.of(
+                run(10_003, "Wednesday Run", MONDAY.plusDays(2), 6, Location.OUTDOOR),
+                run(10_001, "Monday Run", MONDAY, 3, Location.INDOOR),
+                run(10_002, "Tuesday Run", MONDAY.plusDays(1), 4, Location.INDOOR)));
+    }
+
+    // Test case to check if all runs are returned ordered by id
+    @Test
+    void shouldFindAllOrderedById() {
+        assertEquals(List.of(10_001, 10_002, 10_003), storage.findAll().stream().map(Run::id).toList());
+        assertEquals(3, storage.count());
+    }
+
+    // Test case to check if runs are paged in id order
+    @Test
+    void shouldFindPageOrderedById() {
+        assertEquals(List.of(10_001, 10_002), storage.findAll(0, 2).stream().map(Run::id).toList());
+        assertEquals(List.of(10_003), storage.findAll(1, 2).stream().map(Run::id).toList());
+        assertTrue(storage.findAll(2, 2).isEmpty());
+    }
+
+    // Test case to check if a run is found by id with every field as stored
+    @Test
+    void shouldFindById() {
+        Run run = storage.findById(10_001).orElseThrow();
+
+        assertAll(
+                () -> assertEquals("Monday Run", run.title()),
+                () -> assertEquals(MONDAY, run.startedOn()),
+                () -> assertEquals(MONDAY.plusHours(1), run.completedOn()),
+                () -> assertEquals(3, run.miles()),
+                () -> assertEquals(Location.INDOOR, run.location()),
+                () -> assertEquals(0, run.version()));
+    }
+
+    // Test case to check if a missing id gives an empty Optional rather than an exception
+    @Test
+    void shouldNotFindMissingId() {
+        assertTrue(storage.findById(99_999).isEmpty());
+    }
+
+    // Test case to check if a batch lookup returns only the runs that exist, with every field as stored
+    @Test
+    void shouldFindAllById() {
+        List<Run> found = storage.findAllById(List.of(10_003, 99_999, 10_001));
+
+        assertEquals(List.of(10_001, 10_003), found.stream().map(Run::id).sorted().toList());
+        assertTrue(found.contains(storage.findById(10_003).orElseThrow()));
+        assertTrue(storage.findAllById(List.of()).isEmpty());
+    }
+
+    // Test case to check if runs without an id get a new, distinct one
+    @Test
+    void shouldAssignIdsToNewRuns() {
+        Run first = storage.create(run(null, "Thursday Run", MONDAY.plusDays(3), 5, Location.OUTDOOR));
+        Run second = storage.create(run(null, "Friday Run", MONDAY.plusDays(4), 2, Location.OUTDOOR));
+
+        assertNotNull(first.id());
+        assertNotEquals(first.id(), second.id());
+        assertEquals("Friday Run", storage.findById(second.id()).orElseThrow().title());
+        assertEquals(5, storage.count());
+    }
+
+    // Test case to check if runs are filtered by start time, including from and excluding to, ordered by start time
+    @Test
+    void shouldFindAllStartedBetween() {
+        assertEquals(List.of(10_001, 10_002), storage.findAllStartedBetween(MONDAY, MONDAY.plusDays(2)).stream().map(Run::id).toList());
+        assertTrue(storage.findAllStartedBetween(MONDAY.minusDays(7), MONDAY).isEmpty());
+    }
+
+    // Test case to check if runs are filtered by location name, ordered by id
+    @Test
+    void shouldFindByLocation() {
+        assertEquals(List.of(10_001, 10_002), storage.findByLocation("INDOOR").stream().map(Run::id).toList());
+        assertTrue(storage.findByLocation("NOWHERE").isEmpty());
+    }
+
+    // Test case to check if an update replaces the fields, keeps the id and increments the version
+    @Test
+    void shouldUpdateRun() {
+        storage.update(run(null, "Monday Long Run", MONDAY, 13, Location.OUTDOOR), 10_001);
+
+        Run run = storage.findById(10_001).orElseThrow();
+        assertEquals("Monday Long Run", run.title());
+        assertEquals(13, run.miles());
+        assertEquals(Location.OUTDOOR, run.location());
+        assertEquals(1, run.version());
+        assertEquals(3, storage.count());
+    }
+
+    // Test case to check if updating a missing run fails
+    @Test
+    void shouldNotUpdateMissingRun() {
+        assertThrows(RunNotFoundException.class, () -> storage.update(run(null, "Ghost Run", MONDAY, 1, Location.INDOOR), 99_999));
+    }
+
+    // Test case to check if a run is deleted
+    @Test
+    void shouldDeleteRun() {
+        storage.delete(10_002);
+
+        assertTrue(storage.findById(10_002).isEmpty());
+        assertEquals(2, storage.count());
+    }
+
+    // Test case to check if deleting a missing run fails
+    @Test
+    void shouldNotDeleteMissingRun() {
+        assertThrows(RunNotFoundException.class, () -> storage.delete(99_999));
+    }
+
+    // Test case to check if runs started before a time are deleted oldest first, up to the limit
+    @Test
+    void shouldDeleteStartedBefore() {
+        assertEquals(1, storage.deleteStartedBefore(MONDAY.plusDays(2), Location.INDOOR, 1));
+        assertEquals(List.of(10_002, 10_003), storage.findAll().stream().map(Run::id).toList());
+
+        assertEquals(1, storage.deleteStartedBefore(MONDAY.plusDays(2), null, 5)); // Fewer than the limit, none left
+        assertEquals(List.of(10_003), storage.findAll().stream().map(Run::id).toList());
+    }
+
+    // Test case to check if projections contain exactly the requested fields, in field order
+    @Test
+    void shouldProjectRequestedFields() {
+        List<Map<String, Object>> rows = storage.findAll(EnumSet.of(RunField.MILES, RunField.TITLE));
+        assertEquals(Map.of("title", "Monday Run", "miles", 3), rows.get(0));
+        assertEquals(List.of("title", "miles"), List.copyOf(rows.get(0).keySet()));
+
+        List<Map<String, Object>> outdoor = storage.findByLocation("OUTDOOR", EnumSet.of(RunField.ID, RunField.LOCATION));
+        assertEquals(List.of(Map.of("id", 10_003, "location", Location.OUTDOOR)), outdoor);
+    }
+
+    static Run run(Integer id, String title, LocalDateTime startedOn, int miles, Location location) {
+        return new Run(id, title, startedOn, startedOn.plusHours(1), miles, location, null);
+    }
+}
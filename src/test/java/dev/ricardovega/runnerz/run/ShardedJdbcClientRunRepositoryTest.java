@@ -0,0 +1,174 @@
+package dev.ricardovega.runnerz.run;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the JdbcClientRunRepository against three embedded H2 databases acting as shards
+class ShardedJdbcClientRunRepositoryTest {
+
+    RunShards shards;
+    JdbcClientRunRepository repository;
+
+    // Setup method to create the shards and store 30 runs spread over them
+    @BeforeEach
+    void setUp() {
+        shards = RunShards.of(EmbeddedRunDatabases.create(3));
+        repository = new JdbcClientRunRepository(shards, new RunIdAllocator(shards.primary().jdbcClient(), 50), new RunRollupRepository(shards));
+
+        List<Run> runs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            runs.add(new Run(null,
+                    "Run " + i,
+                    LocalDateTime.of(2024, 1, 1, 6, 0).plusDays(i),
+                    LocalDateTime.of(2024, 1, 1, 7, 0).plusDays(i),
+                    1 + i,
+                    i % 3 == 0 ? Location.OUTDOOR : Location.INDOOR, null));
+        }
+        repository.saveAll(runs);
+    }
+
+    // Test case to check if an explicit id that is already taken is rejected, as the partitioned table cannot do it
+    @Test
+    void shouldRejectTakenExplicitId() {
+        Run existing = repository.findAll().get(0);
+
+        assertThrows(DuplicateKeyException.class, () -> repository.create(existing.withId(existing.id())));
+        assertEquals(30, repository.count());
+    }
+
+    // Test case to check if imported ids move the sequence, so later ids on this and other nodes do not collide
+    @Test
+    void shouldAssignIdsAfterImportedIds() {
+        repository.saveAll(List.of(
+                new Run(40, "Imported Run", LocalDateTime.of(2024, 3, 1, 6, 0), LocalDateTime.of(2024, 3, 1, 7, 0), 2, Location.OUTDOOR, null),
+                new Run(500, "Imported Run", LocalDateTime.of(2024, 3, 2, 6, 0), LocalDateTime.of(2024, 3, 2, 7, 0), 2, Location.OUTDOOR, null)));
+
+        Run created = repository.create(new Run(null, "New Run", LocalDateTime.of(2024, 3, 3, 6, 0), LocalDateTime.of(2024, 3, 3, 7, 0), 2, Location.OUTDOOR, null));
+        RunIdAllocator otherNode = new RunIdAllocator(shards.primary().jdbcClient(), 50);
+
+        assertTrue(created.id() > 500, "Got id " + created.id());
+        assertTrue(otherNode.nextId() > 500);
+        assertEquals(33, repository.count());
+    }
+
+    // Test case to check if a block size that does not match the sequence increment fails the first allocation
+    @Test
+    void shouldRejectBlockSizeNotMatchingSequence() {
+        new RunIdAllocator(shards.primary().jdbcClient(), 50).validateBlockSize();
+        RunIdAllocator mismatched = new RunIdAllocator(shards.primary().jdbcClient(), 20); // Creating it does not query the sequence
+
+        assertThrows(IllegalStateException.class, mismatched::nextId);
+        assertThrows(IllegalStateException.class, () -> mismatched.advancePast(1_000));
+    }
+
+    // Test case to check if closing the shards closes the datasources they own and stops the executor
+    @Test
+    void shouldCloseOwnedDataSources() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID());
+        RunShards owning = new RunShards(List.of(shards.primary(), RunShards.Shard.of(1, dataSource)), List.of(dataSource));
+
+        owning.close();
+
+        assertTrue(dataSource.isClosed());
+        assertThrows(RejectedExecutionException.class, () -> owning.scatter(shard -> List.of(shard.index()), Integer::compare));
+    }
+
+    // Test case to check if the runs are spread over every shard
+    @Test
+    void shouldSpreadRunsOverAllShards() {
+        for (RunShards.Shard shard : shards.all()) {
+            int count = shard.jdbcClient().sql("SELECT COUNT(*) FROM run").query(Integer.class).single();
+            assertTrue(count > 0, "Shard " + shard.index() + " holds no runs"); // Assert that no shard is left empty
+        }
+        assertEquals(30, repository.count()); // Assert that the shard counts add up
+    }
+
+    // Test case to check if scatter-gather reads return every run in id order
+    @Test
+    void shouldFindAllRunsAcrossShards() {
+        List<Run> runs = repository.findAll(); // Retrieve all runs from all shards
+        assertEquals(30, runs.size()); // Assert that all runs are found
+        for (int i = 1; i < runs.size(); i++) {
+            assertTrue(runs.get(i - 1).id() < runs.get(i).id()); // Assert that the merged list is ordered by id
+        }
+        assertEquals(10, repository.findByLocation("OUTDOOR").size()); // Assert that the location filter is applied on every shard
+    }
+
+    // Test case to check if projections return only the requested fields, merged in id order
+    @Test
+    void shouldProjectFieldsAcrossShards() {
+        List<Run> all = repository.findAll();
+        List<Map<String, Object>> titles = repository.findAll(EnumSet.of(RunField.TITLE, RunField.MILES));
+
+        assertEquals(30, titles.size());
+        assertEquals(Map.of("title", all.get(0).title(), "miles", all.get(0).miles()), titles.get(0)); // Assert that the id is not returned
+        assertEquals(all.stream().map(Run::title).toList(), titles.stream().map(row -> row.get("title")).toList()); // Assert that the order matches
+
+        List<Map<String, Object>> outdoor = repository.findByLocation("OUTDOOR", EnumSet.of(RunField.ID, RunField.LOCATION));
+        assertEquals(10, outdoor.size());
+        assertEquals(List.of("id", "location"), List.copyOf(outdoor.get(0).keySet()));
+        assertEquals(Location.OUTDOOR, outdoor.get(0).get("location"));
+    }
+
+    // Test case to check if pages are cut from the merged, ordered result
+    @Test
+    void shouldPageAcrossShards() {
+        List<Run> all = repository.findAll();
+
+        assertEquals(all.subList(0, 7), repository.findAll(0, 7)); // Assert that the first page matches
+        assertEquals(all.subList(14, 21), repository.findAll(2, 7)); // Assert that a later page matches
+        assertEquals(all.subList(28, 30), repository.findAll(4, 7)); // Assert that the last page is partial
+    }
+
+    // Test case to check if a failing shard cancels the queries still running on the other shards
+    @Test
+    void shouldCancelOtherShardsOnFailure() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThrows(IllegalArgumentException.class, () -> shards.scatter(shard -> {
+            if (shard.index() == 1) {
+                throw new IllegalArgumentException("Shard 1 is down");
+            }
+            if (shard.index() == 0) {
+                try {
+                    Thread.sleep(Duration.ofSeconds(30)); // Only ends early if the query is cancelled
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return List.<Integer>of();
+        }, Comparator.naturalOrder()));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS)); // Assert that the slow shard was interrupted instead of running on
+    }
+
+    // Test case to check if single-run operations are routed to the owning shard
+    @Test
+    void shouldRouteByIdToOwningShard() {
+        Run run = repository.findAll().get(0);
+
+        repository.update(new Run(run.id(), "Updated Run", run.startedOn(), run.completedOn(), 42, run.location(), null), run.id());
+        assertEquals(42, repository.findById(run.id()).get().miles()); // Assert that the update is visible through the owning shard
+
+        repository.delete(run.id());
+        assertTrue(repository.findById(run.id()).isEmpty()); // Assert that the run is gone
+        assertEquals(29, repository.count()); // Assert that exactly one run was removed
+    }
+}
@@ -0,0 +1,31 @@
+package dev.ricardovega.runnerz.run;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+// Runs the conformance suite on Spring Data JDBC with an embedded H2 database. The test methods are inherited
+// from RunStorageConformanceTest, where @DataJdbcTest's @Transactional does not reach them, so nothing is
+// rolled back: the run table is emptied before each test instead.
+@DataJdbcTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnerz-spring-data;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.schema-locations=classpath:embedded-schema.sql",
+        "runnerz.storage.engine=spring-data"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // Use the H2 database configured above
+@Import({SpringDataRunStorage.class, RunIdAllocator.class})
+@Sql(statements = "DELETE FROM run")
+class SpringDataRunStorageConformanceTest extends RunStorageConformanceTest {
+
+    @Autowired
+    SpringDataRunStorage springDataRunStorage;
+
+    @Override
+    RunStorage emptyStorage() {
+        return springDataRunStorage;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSpanExporterTest {
+
+    @TempDir
+    Path directory;
+
+    // Test case to check if spans are written as JSON lines
+    @Test
+    void shouldWriteSpansAsJsonLines() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(file, 1_000_000, 2);
+
+        export(exporter, 3);
+        exporter.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"traceId\":"));
+    }
+
+    // Test case to check if a full file is rotated and only maxFiles rotated files are kept
+    @Test
+    void shouldRotateFullFile() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(file, 1_000, 2); // A few spans per file
+
+        export(exporter, 50);
+        exporter.close();
+
+        assertTrue(Files.size(file) <= 1_000);
+        assertTrue(Files.size(directory.resolve("spans.jsonl.1")) <= 1_000);
+        assertTrue(Files.exists(directory.resolve("spans.jsonl.2")));
+        assertFalse(Files.exists(directory.resolve("spans.jsonl.3")));
+    }
+
+    // Test case to check if settings that would rotate forever are rejected
+    @Test
+    void shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new FileSpanExporter(directory.resolve("spans.jsonl"), 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new FileSpanExporter(directory.resolve("spans.jsonl"), 1_000, 0));
+    }
+
+    private static void export(FileSpanExporter exporter, int count) {
+        for (int i = 0; i < count; i++) {
+            Span.root(exporter, "GET /api/runs", null, null).close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLogTest {
+
+    @Test
+    void shouldCollapseWhitespaceAndLiterals() {
+        assertEquals("SELECT * FROM run WHERE location = ? AND miles > ?",
+                SlowQueryLog.normalize("SELECT *\n  FROM run\n WHERE location = 'OUTDOOR' AND miles > 5"));
+    }
+
+    @Test
+    void shouldCollapseParameterLists() {
+        assertEquals("DELETE FROM run WHERE id IN (?...)", SlowQueryLog.normalize("DELETE FROM run WHERE id IN (?, ?, ?)"));
+        assertEquals("DELETE FROM run WHERE id IN (?...)", SlowQueryLog.normalize("DELETE FROM run WHERE id IN (1,2)"));
+    }
+
+    @Test
+    void shouldKeepDigitsInIdentifiers() {
+        assertEquals("ALTER TABLE run_y2024m01 DETACH PARTITION", SlowQueryLog.normalize("ALTER TABLE run_y2024m01 DETACH PARTITION"));
+    }
+
+    @Test
+    void shouldOnlyRecordStatementsAboveThreshold() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(java.time.Duration.ofMillis(200));
+        assertFalse(slowQueryLog.isSlow(199_000_000L));
+        assertTrue(slowQueryLog.isSlow(200_000_000L));
+    }
+}
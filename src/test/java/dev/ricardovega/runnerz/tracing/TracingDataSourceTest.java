@@ -0,0 +1,64 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingDataSourceTest {
+
+    List<Span> exported = new CopyOnWriteArrayList<>();
+    JdbcClient jdbcClient;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcClient = JdbcClient.create(new TracingDataSource("test", h2, new SlowQueryLog(Duration.ofSeconds(10))));
+        jdbcClient.sql("CREATE TABLE run (id INT PRIMARY KEY, title VARCHAR(250))").update();
+    }
+
+    @Test
+    void shouldRecordStatementSpansBelowRequestSpan() {
+        try (Span request = Span.root(exported::add, "GET /api/runs", null, null)) {
+            jdbcClient.sql("INSERT INTO run(id, title) VALUES(?, ?), (?, ?)").params(1, "Monday", 2, "Tuesday").update();
+            List<String> titles = jdbcClient.sql("SELECT title FROM run WHERE id IN (:ids) ORDER BY id")
+                    .param("ids", List.of(1, 2))
+                    .query(String.class)
+                    .list();
+            assertEquals(List.of("Monday", "Tuesday"), titles);
+        }
+
+        assertEquals(3, exported.size());
+        Span insert = exported.get(0);
+        Span select = exported.get(1);
+        Span request = exported.get(2);
+
+        assertEquals("jdbc INSERT", insert.name());
+        assertEquals(2L, insert.attributes().get("db.rows"));
+        assertEquals("[Integer, String, Integer, String]", insert.attributes().get("db.parameters"));
+
+        assertEquals("jdbc SELECT", select.name());
+        assertEquals("SELECT title FROM run WHERE id IN (?...) ORDER BY id", select.attributes().get("db.statement"));
+        assertEquals(2L, select.attributes().get("db.rows"));
+
+        assertEquals(request.spanId(), insert.parentSpanId());
+        assertEquals(request.spanId(), select.parentSpanId());
+        assertEquals(request.traceId(), select.traceId());
+        assertNull(Span.current(), "Closing the request span should leave the thread untraced");
+    }
+
+    @Test
+    void shouldNotRecordOutsideTracedRequest() {
+        jdbcClient.sql("SELECT COUNT(*) FROM run").query(Integer.class).single();
+
+        assertTrue(exported.isEmpty());
+        assertFalse(Span.start("orphan", "INTERNAL").isRecording());
+    }
+}
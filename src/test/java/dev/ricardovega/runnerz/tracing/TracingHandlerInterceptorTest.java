@@ -0,0 +1,71 @@
+package dev.ricardovega.runnerz.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingHandlerInterceptorTest {
+
+    List<Span> exported = new CopyOnWriteArrayList<>();
+    TracingHandlerInterceptor interceptor = new TracingHandlerInterceptor();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/runs");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // Test case to check if the controller span ends before the response body is written
+    @Test
+    void shouldEndControllerSpanBeforeJsonWrite() throws Exception {
+        HandlerMethod handler = handler();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        try (Span ignored = Span.root(exported::add, "GET /api/runs", null, null)) {
+            interceptor.preHandle(request, response, handler);
+            new TracingJackson2HttpMessageConverter(new ObjectMapper())
+                    .write(Map.of("id", 1), MediaType.APPLICATION_JSON, new MockHttpOutputMessage()); // @ResponseBody, before postHandle
+            interceptor.postHandle(request, response, handler, null);
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+
+        assertEquals(List.of("Object.toString", "json write", "GET /api/runs"), exported.stream().map(Span::name).toList());
+        Span controller = exported.get(0);
+        Span json = exported.get(1);
+        Span root = exported.get(2);
+        assertEquals(root.spanId(), controller.parentSpanId());
+        assertEquals(root.spanId(), json.parentSpanId(), "The JSON write should not be part of the controller span");
+    }
+
+    // Test case to check if a controller that throws still ends its span, with the error
+    @Test
+    void shouldEndControllerSpanWithError() throws Exception {
+        HandlerMethod handler = handler();
+
+        try (Span ignored = Span.root(exported::add, "GET /api/runs", null, null)) {
+            interceptor.preHandle(request, response, handler);
+            interceptor.afterCompletion(request, response, handler, new IllegalStateException("boom"));
+        }
+
+        assertEquals(2, exported.size());
+        assertEquals("IllegalStateException: boom", exported.get(0).errorMessage());
+    }
+
+    private static HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+    }
+}
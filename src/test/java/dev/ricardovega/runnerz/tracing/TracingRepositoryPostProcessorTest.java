@@ -0,0 +1,40 @@
+package dev.ricardovega.runnerz.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingRepositoryPostProcessorTest {
+
+    List<Span> exported = new CopyOnWriteArrayList<>();
+
+    // Test case to check if a repository implementing an interface can still be used as its own class
+    @Test
+    void shouldProxyRepositoryClass() {
+        Object bean = new TracingRepositoryPostProcessor().postProcessAfterInitialization(new GreetingRepository(), "greetingRepository");
+
+        assertTrue(AopUtils.isCglibProxy(bean));
+        GreetingRepository repository = assertInstanceOf(GreetingRepository.class, bean);
+        try (Span request = Span.root(exported::add, "GET /api/greetings", null, null)) {
+            assertEquals("Hello", repository.greeting());
+        }
+        assertEquals("GreetingRepository.greeting", exported.get(0).name());
+    }
+
+    interface Greetings {
+        String greeting();
+    }
+
+    @Repository
+    static class GreetingRepository implements Greetings {
+        @Override
+        public String greeting() {
+            return "Hello";
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.ricardovega.runnerz.track;
+
+import dev.ricardovega.runnerz.run.Location;
+import dev.ricardovega.runnerz.run.Run;
+import dev.ricardovega.runnerz.run.RunStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RunTrackController.class)
+@Import(TrackIngestor.class) // Uploads are parsed for real, only storage is mocked
+class RunTrackControllerTest {
+
+    private static final String TRACK = """
+            [{"lat":40.0,"lng":-73.9,"time":"2024-02-20T06:05:00Z"},{"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:30Z"}]""";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    RunStorage runStorage;
+
+    @MockBean
+    RunTrackRepository trackRepository;
+
+    // Test case to check if an uploaded track is stored and its summary returned
+    @Test
+    void shouldUploadTrack() throws Exception {
+        when(runStorage.findById(1)).thenReturn(Optional.of(run()));
+
+        mvc.perform(post("/api/runs/1/track").contentType(MediaType.APPLICATION_JSON).content(TRACK))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.point_count").value(2))
+                .andExpect(jsonPath("$.duration_seconds").value(30));
+
+        verify(trackRepository).save(eq(1), any());
+    }
+
+    // Test case to check if a malformed upload is a bad request and nothing is stored
+    @Test
+    void shouldRejectMalformedTrack() throws Exception {
+        when(runStorage.findById(1)).thenReturn(Optional.of(run()));
+
+        mvc.perform(post("/api/runs/1/track").contentType(MediaType.APPLICATION_JSON).content(TRACK.replace("]", "")))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/runs/1/track").contentType(MediaType.APPLICATION_JSON).content(TRACK.replace("40.0,", "\"40.0\",")))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/runs/1/track").contentType(MediaType.APPLICATION_JSON).content(TRACK + "{}"))
+                .andExpect(status().isBadRequest());
+
+        verify(trackRepository, never()).save(anyInt(), any());
+    }
+
+    // Test case to check if a track for a missing run is not found
+    @Test
+    void shouldNotUploadTrackOfMissingRun() throws Exception {
+        when(runStorage.findById(2)).thenReturn(Optional.empty());
+
+        mvc.perform(post("/api/runs/2/track").contentType(MediaType.APPLICATION_JSON).content(TRACK))
+                .andExpect(status().isNotFound());
+    }
+
+    // Test case to check if the summary and the points of a stored track are returned
+    @Test
+    void shouldFindSummaryAndPoints() throws Exception {
+        when(trackRepository.findSummary(1)).thenReturn(Optional.of(new TrackSummary(2, 111.2, 30, List.of())));
+        TrackCodec.Encoder encoder = new TrackCodec.Encoder();
+        encoder.add(new TrackPoint(40.0, -73.9, Instant.parse("2024-02-20T06:05:00Z")));
+        when(trackRepository.findPoints(1)).thenReturn(Optional.of(encoder.toByteArray()));
+
+        mvc.perform(get("/api/runs/1/track/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.distance_meters").value(111.2));
+        mvc.perform(get("/api/runs/1/track"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lat").value(40.0));
+    }
+
+    // Test case to check if a run without a track is not found
+    @Test
+    void shouldNotFindMissingTrack() throws Exception {
+        when(trackRepository.findSummary(1)).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/runs/1/track/summary"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static Run run() {
+        return new Run(1, "Tuesday Run", LocalDateTime.of(2024, 2, 20, 6, 5), LocalDateTime.of(2024, 2, 20, 6, 6), 1, Location.OUTDOOR, 0);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.ricardovega.runnerz.track;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ricardovega.runnerz.run.EmbeddedRunDatabases;
+import dev.ricardovega.runnerz.run.JdbcClientRunRepository;
+import dev.ricardovega.runnerz.run.Location;
+import dev.ricardovega.runnerz.run.Run;
+import dev.ricardovega.runnerz.run.RunIdAllocator;
+import dev.ricardovega.runnerz.run.RunNotFoundException;
+import dev.ricardovega.runnerz.run.RunRollupRepository;
+import dev.ricardovega.runnerz.run.RunShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Stores tracks next to runs on two embedded H2 databases acting as shards
+class RunTrackRepositoryTest {
+
+    private static final String TRACK = """
+            [{"lat":40.0,"lng":-73.9,"time":"2024-02-20T06:05:00Z"},
+             {"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:30Z"},
+             {"lat":40.002,"lng":-73.9,"time":"2024-02-20T06:06:00Z"}]""";
+
+    JdbcClientRunRepository runRepository;
+    RunTrackRepository trackRepository;
+    TrackIngestor ingestor = new TrackIngestor(new ObjectMapper());
+    Run run;
+
+    // Setup method to store one run without a track
+    @BeforeEach
+    void setUp() {
+        RunShards shards = RunShards.of(EmbeddedRunDatabases.create(2));
+        runRepository = new JdbcClientRunRepository(shards, new RunIdAllocator(shards.primary().jdbcClient(), 50), new RunRollupRepository(shards));
+        trackRepository = new RunTrackRepository(shards);
+        run = runRepository.create(new Run(null, "Tuesday Run",
+                LocalDateTime.of(2024, 2, 20, 6, 5), LocalDateTime.of(2024, 2, 20, 6, 6), 1, Location.OUTDOOR, null));
+    }
+
+    // Test case to check if the summary and the points are read back as uploaded
+    @Test
+    void shouldSaveAndReadTrack() throws Exception {
+        trackRepository.save(run.id(), ingest(TRACK));
+
+        TrackSummary summary = trackRepository.findSummary(run.id()).orElseThrow();
+        assertEquals(3, summary.pointCount());
+        assertEquals(60, summary.durationSeconds());
+        List<TrackPoint> points = new ArrayList<>();
+        TrackCodec.decode(trackRepository.findPoints(run.id()).orElseThrow()).forEach(points::add);
+        assertEquals(3, points.size());
+        assertEquals(40.002, points.get(2).lat(), 1e-6);
+    }
+
+    // Test case to check if a second upload replaces the first
+    @Test
+    void shouldReplaceEarlierUpload() throws Exception {
+        trackRepository.save(run.id(), ingest(TRACK));
+        trackRepository.save(run.id(), ingest("""
+                [{"lat":40.0,"lng":-73.9,"time":"2024-02-20T06:05:00Z"},{"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:30Z"}]"""));
+
+        assertEquals(2, trackRepository.findSummary(run.id()).orElseThrow().pointCount());
+    }
+
+    // Test case to check if a track cannot be stored for a run that does not exist
+    @Test
+    void shouldRejectTrackOfMissingRun() throws Exception {
+        TrackIngestor.IngestedTrack track = ingest(TRACK);
+
+        assertThrows(RunNotFoundException.class, () -> trackRepository.save(run.id() + 1, track));
+        assertTrue(trackRepository.findSummary(run.id() + 1).isEmpty());
+    }
+
+    // Test case to check if deleting a run also deletes its track
+    @Test
+    void shouldDeleteTrackWithRun() throws Exception {
+        trackRepository.save(run.id(), ingest(TRACK));
+
+        runRepository.delete(run.id());
+
+        assertTrue(trackRepository.findSummary(run.id()).isEmpty());
+        assertTrue(trackRepository.findPoints(run.id()).isEmpty());
+    }
+
+    private TrackIngestor.IngestedTrack ingest(String json) throws Exception {
+        return ingestor.ingest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,49 @@
+package dev.ricardovega.runnerz.track;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackCodecTest {
+
+    // Test case to check if encoded points decode back to the same coordinates and times
+    @Test
+    void shouldRoundTripPoints() {
+        List<TrackPoint> points = List.of(
+                new TrackPoint(40.785091, -73.968285, Instant.parse("2024-02-20T06:05:00Z")),
+                new TrackPoint(40.785120, -73.968190, Instant.parse("2024-02-20T06:05:01Z")),
+                new TrackPoint(-33.856784, 151.215297, Instant.parse("2024-02-20T06:05:05Z")));
+
+        TrackCodec.Encoder encoder = new TrackCodec.Encoder();
+        points.forEach(encoder::add);
+
+        List<TrackPoint> decoded = new ArrayList<>();
+        TrackCodec.decode(encoder.toByteArray()).forEach(decoded::add);
+
+        assertEquals(points, decoded); // Assert that micro-degree precision keeps these points exact
+    }
+
+    // Test case to check if a regular 1 Hz track is much smaller than raw doubles
+    @Test
+    void shouldEncodeConsecutivePointsCompactly() {
+        TrackCodec.Encoder encoder = new TrackCodec.Encoder();
+        Instant start = Instant.parse("2024-02-20T06:05:00Z");
+        for (int i = 0; i < 3600; i++) {
+            encoder.add(new TrackPoint(40.785091 + i * 0.00002, -73.968285 + i * 0.00001, start.plusSeconds(i)));
+        }
+
+        byte[] encoded = encoder.toByteArray();
+        assertTrue(encoded.length < 3600 * 5, "Encoded track takes " + encoded.length + " bytes"); // Assert a few bytes per point instead of 24
+    }
+
+    // Test case to check if split times survive encoding
+    @Test
+    void shouldRoundTripInts() {
+        List<Integer> splits = List.of(412, 398, 405, 0, 100_000);
+        assertEquals(splits, TrackCodec.decodeInts(TrackCodec.encodeInts(splits)));
+    }
+}
@@ -0,0 +1,89 @@
+package dev.ricardovega.runnerz.track;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackIngestorTest {
+
+    TrackIngestor ingestor = new TrackIngestor(new ObjectMapper());
+
+    // Test case to check if distance and mile splits are computed while the upload is read
+    @Test
+    void shouldSummarizeTrack() throws Exception {
+        // Points due north along a meridian, 0.001 degrees (about 111 m) every 30 seconds
+        StringBuilder json = new StringBuilder("[");
+        Instant start = Instant.parse("2024-02-20T06:05:00Z");
+        for (int i = 0; i <= 40; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("""
+                    {"lat":%s,"lng":-73.968285,"ele":12.5,"time":"%s"}""".formatted(40.0 + i * 0.001, start.plusSeconds(i * 30L)));
+        }
+        json.append(']');
+
+        TrackSummary summary = ingestor.ingest(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8))).summary();
+
+        assertEquals(41, summary.pointCount()); // Assert that every point was read
+        assertEquals(4447.8, summary.distanceMeters(), 1.0); // Assert the haversine distance of 0.04 degrees of latitude
+        assertEquals(1200, summary.durationSeconds()); // Assert the time between the first and last point
+        assertEquals(2, summary.splitSeconds().size()); // Assert that two full miles were completed
+        assertEquals(434, summary.splitSeconds().get(0), 1); // Assert the time of the first mile at a constant pace
+    }
+
+    // Test case to check if points that go back in time are rejected
+    @Test
+    void shouldRejectUnorderedPoints() {
+        String json = """
+                [{"lat":40.0,"lng":-73.9,"time":"2024-02-20T06:05:10Z"},{"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:00Z"}]""";
+
+        assertThrows(InvalidTrackException.class,
+                () -> ingestor.ingest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    // Test case to check if malformed JSON is a bad track, not a server error
+    @Test
+    void shouldRejectMalformedJson() {
+        InvalidTrackException e = assertThrows(InvalidTrackException.class, () -> ingest("""
+                [{"lat":40.0,"lng":-73.9,"time":"2024-02-20T06:05:00Z"},{"lat":40.001,"""));
+
+        assertTrue(e.getMessage().startsWith("Malformed track"));
+    }
+
+    // Test case to check if coordinates that are not numbers are rejected
+    @Test
+    void shouldRejectNonNumericCoordinates() {
+        assertThrows(InvalidTrackException.class, () -> ingest("""
+                [{"lat":"north","lng":-73.9,"time":"2024-02-20T06:05:00Z"},{"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:30Z"}]"""));
+        assertThrows(InvalidTrackException.class, () -> ingest("""
+                [{"lat":40.0,"lng":null,"time":"2024-02-20T06:05:00Z"},{"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:30Z"}]"""));
+    }
+
+    // Test case to check if anything but point objects in the array, or after it, is rejected
+    @Test
+    void shouldRejectTrailingContent() {
+        String points = """
+                [{"lat":40.0,"lng":-73.9,"time":"2024-02-20T06:05:00Z"},{"lat":40.001,"lng":-73.9,"time":"2024-02-20T06:05:30Z"}""";
+
+        assertEquals(2, ingest(points + "]").summary().pointCount());
+        assertThrows(InvalidTrackException.class, () -> ingest(points + ",42]"));
+        assertThrows(InvalidTrackException.class, () -> ingest(points + "] garbage"));
+        assertThrows(InvalidTrackException.class, () -> ingest(points + "] []"));
+    }
+
+    private TrackIngestor.IngestedTrack ingest(String json) {
+        try {
+            return ingestor.ingest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
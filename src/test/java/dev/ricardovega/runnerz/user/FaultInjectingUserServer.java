@@ -0,0 +1,94 @@
+package dev.ricardovega.runnerz.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Local stand-in for jsonplaceholder that serves fixed users and can be told to fail or stall.
+class FaultInjectingUserServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor(); // A stalled request must not block the next one
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<User> users;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<Duration> nextDelay = new AtomicReference<>();
+    private volatile int status = 200;
+
+    FaultInjectingUserServer(List<User> users) throws IOException {
+        this.users = users;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/users", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    // Answer every following request with this status code
+    void respondWith(int status) {
+        this.status = status;
+    }
+
+    // Hold only the next request for the given time before answering it
+    void delayNext(Duration delay) {
+        nextDelay.set(delay);
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        Duration delay = nextDelay.getAndSet(null);
+        if (delay != null) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        byte[] body;
+        int code = status;
+        if (code != 200) {
+            body = "{\"error\":\"injected fault\"}".getBytes(StandardCharsets.UTF_8);
+        } else if (path.equals("/users")) {
+            body = objectMapper.writeValueAsBytes(users);
+        } else {
+            int id = Integer.parseInt(path.substring("/users/".length()));
+            User user = users.stream().filter(u -> u.id() == id).findFirst().orElse(null);
+            code = user == null ? 404 : 200;
+            body = user == null ? "{}".getBytes(StandardCharsets.UTF_8) : objectMapper.writeValueAsBytes(user);
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException e) {
+            // The client gave up on this request, e.g. the losing attempt of a hedge
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
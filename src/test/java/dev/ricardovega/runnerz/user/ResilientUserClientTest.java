@@ -0,0 +1,197 @@
+package dev.ricardovega.runnerz.user;
+
+import dev.ricardovega.runnerz.deadline.DeadlineClientHttpRequestFactory;
+import dev.ricardovega.runnerz.deadline.DeadlineExceededException;
+import dev.ricardovega.runnerz.deadline.DeadlineInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientUserClientTest {
+
+    private static final User LEANNE = new User(1,
+            "Leanne",
+            "lgraham",
+            "lgraham@gmail.com",
+            new Address("Kulas Light", "Apt. 556", "Gwenborough", "92998-3874", new Geo(-37.3159, 81.1496)),
+            "1-770-736-8031 x56442",
+            "hildegard.org",
+            new Company("Romaguera-Crona", "Multi-layered client-server neural-net", "harness real-time e-markets"));
+
+    FaultInjectingUserServer server;
+    MutableClock clock;
+    CircuitBreaker circuitBreaker;
+    UserRestClient userRestClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FaultInjectingUserServer(List.of(LEANNE));
+        clock = new MutableClock();
+        circuitBreaker = new CircuitBreaker(3, Duration.ofSeconds(30), clock);
+        userRestClient = new UserRestClient(RestClient.builder(), server.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldOpenCircuitAndServeLastKnownGoodUsers() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(false, Duration.ZERO), true);
+        assertEquals(List.of(LEANNE), client.findAll());
+
+        server.respondWith(500);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(List.of(LEANNE), client.findAll()); // Served from the fallback
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertEquals(4, server.requests(), "Once open, the breaker should stop calling the service");
+        assertEquals(LEANNE, client.findById(1), "Users from findAll should be available by id");
+    }
+
+    @Test
+    void shouldCloseCircuitAfterSuccessfulProbe() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(false, Duration.ZERO), true);
+        server.respondWith(500);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(UserServiceUnavailableException.class, () -> client.findById(1));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+        server.respondWith(200);
+        assertThrows(UserServiceUnavailableException.class, () -> client.findById(1)); // Still open, nothing sent
+        assertEquals(3, server.requests());
+
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals(LEANNE, client.findById(1)); // Half-open probe succeeds
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    @Test
+    void shouldReopenCircuitWhenProbeFails() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(false, Duration.ZERO), false);
+        server.respondWith(503);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(UserServiceUnavailableException.class, client::findAll);
+        }
+
+        clock.advance(Duration.ofSeconds(31));
+        assertThrows(UserServiceUnavailableException.class, client::findAll);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertEquals(4, server.requests());
+    }
+
+    @Test
+    void shouldNotCountClientErrorsAsFailures() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(false, Duration.ZERO), true);
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpClientErrorException.NotFound.class, () -> client.findById(99));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    // Test case to check if calls cut short by a short caller deadline never open the circuit
+    @Test
+    void shouldNotCountCallerDeadlinesAsFailures() {
+        UserRestClient deadlineClient = new UserRestClient(
+                RestClient.builder().requestFactory(new DeadlineClientHttpRequestFactory(HttpClient.newHttpClient(), Duration.ofSeconds(10))),
+                server.baseUrl());
+        ResilientUserClient client = new ResilientUserClient(deadlineClient, circuitBreaker,
+                new HedgedExecutor(false, Duration.ZERO), true);
+        DeadlineInterceptor interceptor = new DeadlineInterceptor(Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            server.delayNext(Duration.ofMillis(300));
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "20");
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+            try {
+                assertThrows(DeadlineExceededException.class, () -> client.findById(1));
+            } finally {
+                interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertEquals(LEANNE, client.findById(1)); // Without a deadline the service still answers
+    }
+
+    @Test
+    void shouldHedgeSlowRequest() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(true, Duration.ofMillis(50)), true);
+        server.delayNext(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertEquals(LEANNE, client.findById(1));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(2, server.requests(), "A hedge should have been sent");
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, "Hedge should answer before the stalled request, took " + elapsed);
+    }
+
+    @Test
+    void shouldNotHedgeFastRequest() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(true, Duration.ofSeconds(2)), true);
+        assertEquals(LEANNE, client.findById(1));
+        assertEquals(1, server.requests());
+    }
+
+    // Test case to check if no requests are sent once the client has been shut down
+    @Test
+    void shouldNotCallServiceAfterShutdown() {
+        ResilientUserClient client = new ResilientUserClient(userRestClient, circuitBreaker,
+                new HedgedExecutor(true, Duration.ofSeconds(2)), true);
+
+        client.shutdown();
+
+        assertThrows(UserServiceUnavailableException.class, () -> client.findById(1));
+        assertEquals(0, server.requests());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
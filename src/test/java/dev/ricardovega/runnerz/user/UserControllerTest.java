@@ -0,0 +1,63 @@
+package dev.ricardovega.runnerz.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+class UserControllerTest {
+
+    private static final User LEANNE = new User(1,
+            "Leanne",
+            "lgraham",
+            "lgraham@gmail.com",
+            new Address("Kulas Light", "Apt. 556", "Gwenborough", "92998-3874", new Geo(-37.3159, 81.1496)),
+            "1-770-736-8031 x56442",
+            "hildegard.org",
+            new Company("Romaguera-Crona", "Multi-layered client-server neural-net", "harness real-time e-markets"));
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    ResilientUserClient userClient;
+
+    // Test case to check if users are read through the resilient client
+    @Test
+    void shouldFindAllUsers() throws Exception {
+        when(userClient.findAll()).thenReturn(List.of(LEANNE));
+
+        mvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("lgraham"));
+    }
+
+    // Test case to check if a user the service does not know gives 404
+    @Test
+    void shouldNotFindUnknownUser() throws Exception {
+        when(userClient.findById(99)).thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        mvc.perform(get("/api/users/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Test case to check if an unavailable user service without fallback data gives 503
+    @Test
+    void shouldReturnServiceUnavailable() throws Exception {
+        when(userClient.findById(1)).thenThrow(new UserServiceUnavailableException(null));
+
+        mvc.perform(get("/api/users/1"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,56 @@
+package dev.ricardovega.runnerz.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starts the application with the warm-up enabled on an embedded H2 database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:runnerz-warmup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.schema-locations=classpath:embedded-schema.sql",
+        "runnerz.warmup.enabled=true",
+        "runnerz.warmup.round-size=40",
+        "runnerz.warmup.stable-rounds=2",
+        "runnerz.warmup.tolerance=0.5",
+        "runnerz.warmup.max-duration=10s"
+})
+class WarmupRunnerIntTest {
+
+    @Autowired
+    WarmupRunner warmupRunner;
+
+    @Autowired
+    ApplicationAvailability availability;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Test case to check if the warm-up ran against the seeded runs before the application became ready
+    @Test
+    void shouldWarmUpBeforeReady() {
+        WarmupReport report = warmupRunner.report();
+
+        assertNotNull(report);
+        assertTrue(report.rounds() >= 1);
+        assertEquals(0, report.errors());
+        assertTrue(report.requests() >= 40);
+        assertTrue(report.duration().compareTo(Duration.ofSeconds(15)) < 0);
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+    }
+
+    // Test case to check if the lookups by id of the warm-up are left out of the coalescing metrics
+    @Test
+    void shouldNotCountWarmupLookups() {
+        assertEquals(0, meterRegistry.get("runnerz.runs.lookup.added.latency").timer().count());
+        assertEquals(0, meterRegistry.get("runnerz.runs.lookup.batch.size").summary().count());
+    }
+}
@@ -0,0 +1,96 @@
+package dev.ricardovega.runnerz.warmup;
+
+import dev.ricardovega.runnerz.tracing.Span;
+import dev.ricardovega.runnerz.tracing.TracingFilter;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmupRunnerTest {
+
+    // Test case to check if the p50 counts as stable only after enough rounds within the tolerance
+    @Test
+    void shouldDetectStableLatency() {
+        List<Duration> p50s = List.of(millis(40), millis(12), millis(10.5), millis(10), millis(10.8), millis(10.2));
+
+        assertTrue(WarmupRunner.isStable(p50s, 0.1, 3));
+        assertFalse(WarmupRunner.isStable(p50s, 0.1, 4)); // 12 -> 10.5 is more than 10% faster
+        assertFalse(WarmupRunner.isStable(p50s.subList(0, 3), 0.1, 3)); // Not enough rounds yet
+        assertFalse(WarmupRunner.isStable(List.of(millis(10), millis(10), millis(20), millis(20)), 0.1, 3));
+    }
+
+    // Test case to check if the mix is parsed and covers every percentile
+    @Test
+    void shouldPickOperationsByMix() {
+        WarmupMix mix = WarmupMix.parse("FIND_ALL:10, FIND_BY_ID:90");
+
+        assertEquals(WarmupMix.Operation.FIND_ALL, mix.pick(0));
+        assertEquals(WarmupMix.Operation.FIND_ALL, mix.pick(9));
+        assertEquals(WarmupMix.Operation.FIND_BY_ID, mix.pick(10));
+        assertEquals(WarmupMix.Operation.FIND_BY_ID, mix.pick(99));
+        assertThrows(IllegalArgumentException.class, () -> WarmupMix.parse("FIND_ALL:10,FIND_BY_ID:80"));
+    }
+
+    // Test case to check if lookups by id only use stored ids
+    @Test
+    void shouldBuildPathsFromStoredIds() {
+        assertEquals("/api/runs/7", WarmupMix.Operation.FIND_BY_ID.path(List.of(3, 7), 5));
+        assertEquals("/api/runs/1", WarmupMix.Operation.FIND_BY_ID.path(List.of(), 5));
+        assertEquals("/api/runs/location/OUTDOOR", WarmupMix.Operation.FIND_BY_LOCATION.path(List.of(), 5));
+    }
+
+    // Test case to check if only requests with the header from a loopback address are marked as warm-up traffic
+    @Test
+    void shouldMarkLocalWarmupRequests() throws Exception {
+        assertTrue(marked(request("127.0.0.1", true)));
+        assertTrue(marked(request("0:0:0:0:0:0:0:1", true)));
+        assertFalse(marked(request("127.0.0.1", false)));
+        assertFalse(marked(request("203.0.113.7", true))); // A remote client cannot opt out of the metrics
+        assertFalse(WarmupRequest.isCurrent()); // The mark ends with the request
+    }
+
+    // Test case to check if warm-up requests are not traced, even when every request is sampled
+    @Test
+    void shouldNotTraceWarmupRequests() throws Exception {
+        List<Span> spans = new ArrayList<>();
+        Filter tracing = new TracingFilter(spans::add, 1.0);
+
+        new MockFilterChain(new HttpServlet() {}, new WarmupRequestFilter(), tracing)
+                .doFilter(request("127.0.0.1", true), new MockHttpServletResponse());
+        assertTrue(spans.isEmpty());
+
+        new MockFilterChain(new HttpServlet() {}, new WarmupRequestFilter(), tracing)
+                .doFilter(request("127.0.0.1", false), new MockHttpServletResponse());
+        assertEquals(1, spans.size());
+    }
+
+    private static boolean marked(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean marked = new AtomicBoolean();
+        Filter probe = (req, res, chain) -> marked.set(WarmupRequest.isCurrent());
+        new MockFilterChain(new HttpServlet() {}, new WarmupRequestFilter(), probe).doFilter(request, new MockHttpServletResponse());
+        return marked.get();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, boolean warmup) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/runs");
+        request.setRemoteAddr(remoteAddr);
+        if (warmup) {
+            request.addHeader(WarmupRequest.HEADER, "true");
+        }
+        return request;
+    }
+
+    private static Duration millis(double millis) {
+        return Duration.ofNanos((long) (millis * 1_000_000));
+    }
+}
@@ -0,0 +1,46 @@
+-- Schema for tests running on an embedded H2 database.
+-- Mirrors schema.sql without the PostgreSQL-only partitioning.
+DROP TABLE IF EXISTS run_track;
+DROP TABLE IF EXISTS run_rollup;
+DROP TABLE IF EXISTS Run;
+DROP SEQUENCE IF EXISTS run_id_seq;
+
+CREATE TABLE IF NOT EXISTS Run (
+    id INT NOT NULL,
+    title varchar(250) NOT NULL,
+    started_on timestamp NOT NULL,
+    completed_on timestamp NOT NULL,
+    miles INT NOT NULL,
+    location varchar(10) NOT NULL,
+    version INT,
+    PRIMARY KEY (id)
+);
+
+-- Run ids are allocated in blocks by RunIdAllocator, INCREMENT BY must match runnerz.id.block-size
+CREATE SEQUENCE IF NOT EXISTS run_id_seq START WITH 1 INCREMENT BY 50;
+
+-- H2 has no setval, EmbeddedRunDatabases emulates advance_run_id_seq from schema.sql
+CREATE ALIAS IF NOT EXISTS advance_run_id_seq FOR 'dev.ricardovega.runnerz.run.EmbeddedRunDatabases.advanceRunIdSeq';
+
+-- GPS tracks, delta/varint encoded by TrackCodec; the summary columns are computed on upload
+-- run_id has no foreign key: the partitioned run table has no unique key on id alone to reference.
+-- Tracks are deleted in the same transaction as their run instead.
+CREATE TABLE IF NOT EXISTS run_track (
+    run_id INT NOT NULL,
+    point_count INT NOT NULL,
+    distance_meters DOUBLE PRECISION NOT NULL,
+    duration_seconds BIGINT NOT NULL,
+    split_seconds VARBINARY NOT NULL,
+    points VARBINARY NOT NULL,
+    PRIMARY KEY (run_id)
+);
+
+-- Weekly and monthly totals per location, maintained by RunRollupRepository
+CREATE TABLE IF NOT EXISTS run_rollup (
+    period varchar(5) NOT NULL,
+    period_start date NOT NULL,
+    location varchar(10) NOT NULL,
+    run_count INT NOT NULL,
+    miles BIGINT NOT NULL,
+    PRIMARY KEY (period, period_start, location)
+);